@@ -0,0 +1,28 @@
+package benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark and writes the results as JSON, so two runs can be
+ * compared before an engine change is accepted.
+ * <p>
+ * Usage: BenchmarkRunner [output file] [benchmark name regex]
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String output = args.length > 0 ? args[0] : "jmh-results.json";
+        String include = args.length > 1 ? args[1] : ChessGameBenchmark.class.getSimpleName();
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(output)
+                .build();
+        new Runner(options).run();
+        System.out.println("Results written to " + output);
+    }
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the ChessGame and ChessBoard operations the server calls on every move,
+ * once for each position in the corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    private ChessGame game;
+    private List<ChessPosition> pieces;
+    private ChessMove move;
+
+    @Setup
+    public void setup() {
+        game = Positions.load(position);
+        pieces = Positions.piecesToMove(game);
+        for (ChessPosition start : pieces) {
+            Collection<ChessMove> moves = game.validMoves(start);
+            if (!moves.isEmpty()) {
+                move = moves.iterator().next();
+                break;
+            }
+        }
+    }
+
+    /**
+     * validMoves for every piece of the team to move, which is what a client
+     * highlighting legal moves asks for
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition start : pieces) {
+            blackhole.consume(game.validMoves(start));
+        }
+    }
+
+    /**
+     * makeMove on a fresh copy of the game, so this includes one board clone
+     * (timed on its own by cloneBoard)
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(game.getBoard().clone());
+        copy.setTeamTurn(game.getTeamTurn());
+        copy.makeMove(move);
+        return copy;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public ChessBoard cloneBoard() {
+        return game.getBoard().clone();
+    }
+}
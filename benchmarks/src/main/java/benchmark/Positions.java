@@ -0,0 +1,59 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The corpus of positions the benchmarks run against, as FEN records.
+ */
+public final class Positions {
+
+    // Ruy Lopez after 1. e4 e5 2. Nf3 Nc6 3. Bb5 a6
+    private static final String OPENING = "r1bqkbnr/1ppp1ppp/p1n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 4";
+
+    // "Kiwipete", a crowded middlegame with pins, checks and captures everywhere
+    private static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    // rook and pawns, with both kings exposed
+    private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private Positions() {
+
+    }
+
+    /**
+     * @param name opening, middlegame or endgame
+     * @return a new game set up at that position
+     */
+    public static ChessGame load(String name) {
+        return ChessGame.fromFen(switch (name) {
+            case "opening" -> OPENING;
+            case "middlegame" -> MIDDLEGAME;
+            case "endgame" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        });
+    }
+
+    /**
+     * @return the squares of every piece belonging to the team to move
+     */
+    public static List<ChessPosition> piecesToMove(ChessGame game) {
+        List<ChessPosition> positions = new ArrayList<>();
+        ChessBoard board = game.getBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    positions.add(position);
+                }
+            }
+        }
+        return positions;
+    }
+}
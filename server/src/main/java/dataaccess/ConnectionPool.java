@@ -0,0 +1,568 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections, so a DAO call borrows a connection that is
+ * already open instead of paying for a new TCP connection and login every time.
+ * <p>
+ * Callers get a proxy and close it as usual; closing hands the real connection
+ * back to the pool. At most maxSize connections are out at once, and a borrower
+ * waits up to the borrow timeout for one to come back. Idle connections are
+ * checked with isValid before being handed out, and a background sweep closes
+ * ones that have sat idle too long or lived past their maximum lifetime while
+ * keeping minSize open.
+ * <p>
+ * Each connection also keeps its most recently used prepared statements open,
+ * keyed by their SQL. A DAO that prepares the same SQL again gets the already
+ * parsed statement back, and closing it just returns it to the cache.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection for the pool
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * Pool limits and timeouts. Any of them can be set in db.properties under the
+     * db.pool prefix, e.g. db.pool.maxSize=20.
+     *
+     * @param validationIntervalMillis a connection used more recently than this is
+     *                                 trusted without an isValid round trip
+     * @param evictionIntervalMillis   how often idle connections are swept; 0 turns the sweep off
+     * @param statementCacheSize       prepared statements kept open per connection; 0 turns caching off
+     */
+    public record Settings(int minSize, int maxSize, long borrowTimeoutMillis, long idleTimeoutMillis,
+                           long maxLifetimeMillis, int validationTimeoutSeconds,
+                           long validationIntervalMillis, long evictionIntervalMillis, int statementCacheSize) {
+
+        public Settings {
+            if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool needs 0 <= minSize <= maxSize and maxSize >= 1");
+            }
+            if (statementCacheSize < 0) {
+                throw new IllegalArgumentException("Statement cache size can't be negative");
+            }
+        }
+
+        public static Settings defaults() {
+            return from(new Properties());
+        }
+
+        public static Settings from(Properties props) {
+            return new Settings(
+                    Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                    Long.parseLong(props.getProperty("db.pool.borrowTimeoutMillis", "5000")),
+                    Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+                    Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", "1800000")),
+                    Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", "2")),
+                    Long.parseLong(props.getProperty("db.pool.validationIntervalMillis", "500")),
+                    Long.parseLong(props.getProperty("db.pool.evictionIntervalMillis", "30000")),
+                    Integer.parseInt(props.getProperty("db.pool.statementCacheSize", "32")));
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters
+     *
+     * @param timeouts           borrows that gave up waiting for a connection
+     * @param validationFailures idle connections thrown away because isValid failed
+     * @param statementHits      prepares answered from a connection's statement cache
+     * @param statementMisses    prepares that had to go to the database
+     */
+    public record Metrics(long borrows, long created, long destroyed, long timeouts, long validationFailures,
+                          int open, int idle, int inUse, long averageWaitNanos, long maxWaitNanos,
+                          long statementHits, long statementMisses) {
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    // one permit per connection that may be out at once
+    private final Semaphore permits;
+    // most recently returned first, so surplus connections at the back go idle and get swept
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+
+        if (settings.evictionIntervalMillis() > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "db-pool-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // the first run also opens the minimum number of connections
+            evictor.scheduleWithFixedDelay(this::evict, 0, settings.evictionIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the borrow timeout if they are all in use.
+     * Close the returned connection to give it back.
+     *
+     * @throws SQLTimeoutException if none came free in time
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + settings.borrowTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isUsable(pooled)) {
+                    break;
+                }
+                destroy(pooled);
+            }
+            if (pooled == null) {
+                pooled = create();
+            }
+            borrows.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Metrics metrics() {
+        int idleCount = idle.size();
+        long count = borrows.get();
+        return new Metrics(count, created.get(), destroyed.get(), timeouts.get(), validationFailures.get(),
+                open.get(), idleCount, settings.maxSize() - permits.availablePermits(),
+                count == 0 ? 0 : totalWaitNanos.get() / count, maxWaitNanos.get(),
+                statementHits.get(), statementMisses.get());
+    }
+
+    /**
+     * Closes every idle connection. Connections still out are closed as they come back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    /*
+     * Closes connections that have idled past the timeout (down to minSize) or
+     * outlived maxLifetime, then opens new ones until minSize are open
+     */
+    void evict() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle) {
+            // remove only succeeds if a borrower hasn't taken it in the meantime
+            if (isExpired(pooled, now)) {
+                if (idle.remove(pooled)) {
+                    destroy(pooled);
+                }
+            } else if (now - pooled.lastUsed >= settings.idleTimeoutMillis() && reserveEviction()) {
+                if (idle.remove(pooled)) {
+                    discard(pooled);
+                } else {
+                    open.incrementAndGet();
+                }
+            }
+        }
+
+        try {
+            while (!closed && open.get() < settings.minSize()) {
+                idle.offerLast(create());
+            }
+        } catch (SQLException e) {
+            // the database is down; borrowers will see the error when they need a connection
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean broken;
+        try {
+            // don't hand the next borrower someone else's open transaction
+            if (!pooled.raw.getAutoCommit()) {
+                pooled.raw.rollback();
+                pooled.raw.setAutoCommit(true);
+            }
+            broken = pooled.raw.isClosed();
+        } catch (SQLException e) {
+            broken = true;
+        }
+
+        if (closed || broken || isExpired(pooled, System.currentTimeMillis())) {
+            destroy(pooled);
+        } else {
+            pooled.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        }
+        permits.release();
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (isExpired(pooled, now)) {
+            return false;
+        }
+        if (now - pooled.lastUsed < settings.validationIntervalMillis()) {
+            return true;
+        }
+        try {
+            if (pooled.raw.isValid(settings.validationTimeoutSeconds())) {
+                return true;
+            }
+        } catch (SQLException e) {
+            // treated the same as failing validation
+        }
+        validationFailures.incrementAndGet();
+        return false;
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt >= settings.maxLifetimeMillis();
+    }
+
+    private PooledConnection create() throws SQLException {
+        var pooled = new PooledConnection(factory.create());
+        open.incrementAndGet();
+        created.incrementAndGet();
+        return pooled;
+    }
+
+    /*
+     * Takes one connection off the open count for an idle eviction, unless that
+     * would leave fewer than minSize. Checking and decrementing in one step keeps
+     * evictions that run side by side from each seeing room for one more.
+     */
+    private boolean reserveEviction() {
+        int count;
+        do {
+            count = open.get();
+            if (count <= settings.minSize()) {
+                return false;
+            }
+        } while (!open.compareAndSet(count, count - 1));
+        return true;
+    }
+
+    private void destroy(PooledConnection pooled) {
+        open.decrementAndGet();
+        discard(pooled);
+    }
+
+    // closes a connection already taken off the open count
+    private void discard(PooledConnection pooled) {
+        destroyed.incrementAndGet();
+        try {
+            pooled.raw.close();
+        } catch (SQLException e) {
+            // it's being thrown away either way
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // A physical connection and the bookkeeping the pool keeps for it
+    private class PooledConnection {
+        final Connection raw;
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastUsed = createdAt;
+
+        // open statements by SQL, least recently used first; only the borrower touches it
+        final LinkedHashMap<StatementKey, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+        }
+
+        PreparedStatement prepare(Connection owner, StatementKey key) throws SQLException {
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                if (!cached.raw.isClosed()) {
+                    statementHits.incrementAndGet();
+                    return cached.lease(owner);
+                }
+                statements.remove(key);
+                cached = null;
+            }
+
+            statementMisses.incrementAndGet();
+            PreparedStatement statement = key.generatedKeys() == StatementKey.PLAIN
+                    ? raw.prepareStatement(key.sql())
+                    : raw.prepareStatement(key.sql(), key.generatedKeys());
+            if (cached != null) {
+                // the cached copy is still open further up the caller's stack, so this one isn't kept
+                return statement;
+            }
+
+            cached = new CachedStatement(this, key, statement);
+            statements.put(key, cached);
+            Iterator<Map.Entry<StatementKey, CachedStatement>> eldest = statements.entrySet().iterator();
+            while (statements.size() > settings.statementCacheSize()) {
+                CachedStatement evicted = eldest.next().getValue();
+                eldest.remove();
+                evicted.evict();
+            }
+            return cached.lease(owner);
+        }
+
+        // A fresh proxy for each borrow, so a stale handle can't touch the connection once it's back
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Lease(this));
+        }
+    }
+
+    // Forwards calls to the real connection until close, which returns it to the pool instead
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || pooled.raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + pooled.raw;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    StatementKey key = StatementKey.of(method, args);
+                    if (key != null && settings.statementCacheSize() > 0) {
+                        return pooled.prepare((Connection) proxy, key);
+                    }
+                }
+            }
+
+            try {
+                return method.invoke(pooled.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // The prepareStatement forms that get cached: plain SQL, and SQL with a generated keys flag
+    private record StatementKey(String sql, int generatedKeys) {
+        static final int PLAIN = -1;
+
+        static StatementKey of(Method method, Object[] args) {
+            if (!method.getName().equals("prepareStatement")) {
+                return null;
+            }
+            if (args.length == 1) {
+                return new StatementKey((String) args[0], PLAIN);
+            }
+            if (args.length == 2 && args[1] instanceof Integer generatedKeys) {
+                return new StatementKey((String) args[0], generatedKeys);
+            }
+            return null;
+        }
+    }
+
+    // A statement kept open in a connection's cache, handed out to one caller at a time
+    private static class CachedStatement {
+        final PooledConnection owner;
+        final StatementKey key;
+        final PreparedStatement raw;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PooledConnection owner, StatementKey key, PreparedStatement raw) {
+            this.owner = owner;
+            this.key = key;
+            this.raw = raw;
+        }
+
+        PreparedStatement lease(Connection connection) {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementLease(this, connection));
+        }
+
+        // Called when the caller closes its handle
+        void giveBack() {
+            inUse = false;
+            try {
+                if (evicted) {
+                    raw.close();
+                } else {
+                    raw.clearParameters();
+                }
+            } catch (SQLException e) {
+                // a statement that can't be reset isn't worth keeping
+                owner.statements.remove(key, this);
+                closeQuietly();
+            }
+        }
+
+        // Pushed out of the cache; close now, or when the caller is done with it
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                raw.close();
+            } catch (SQLException e) {
+                // nothing left to do with it
+            }
+        }
+    }
+
+    // Forwards calls to a cached statement until close, which gives it back to the cache
+    private static class StatementLease implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connection;
+        // the raw statement stays open in the cache, so closing it won't close these for the caller
+        private final List<ResultSet> results = new ArrayList<>();
+        private boolean returned;
+
+        StatementLease(CachedStatement cached, Connection connection) {
+            this.cached = cached;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        closeResults();
+                        cached.giveBack();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || cached.raw.isClosed();
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Cached " + cached.raw;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                }
+            }
+
+            Object result;
+            try {
+                result = method.invoke(cached.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet resultSet) {
+                results.add(resultSet);
+            }
+            return result;
+        }
+
+        private void closeResults() {
+            for (ResultSet resultSet : results) {
+                try {
+                    resultSet.close();
+                } catch (SQLException e) {
+                    // the statement is reset next either way
+                }
+            }
+            results.clear();
+        }
+    }
+}
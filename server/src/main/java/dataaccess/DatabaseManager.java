@@ -8,6 +8,8 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    private static ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -66,7 +68,9 @@ public class DatabaseManager {
                   whiteUsername VARCHAR(100),
                   blackUsername VARCHAR(100),
                   gameName VARCHAR(100) NOT NULL,
-                  game TEXT NOT NULL,
+                  game BLOB NOT NULL,
+                  snapshotPly INT NOT NULL DEFAULT 0,
+                  gameOver BOOLEAN NOT NULL DEFAULT FALSE,
                   PRIMARY KEY (gameID)
               )
             """;
@@ -74,6 +78,23 @@ public class DatabaseManager {
             try (var stmt = conn.prepareStatement(createGameTable)) {
                 stmt.executeUpdate();
             }
+            migrateGamesTable(conn);
+            addGamesColumns(conn);
+
+            // one row per move, never rewritten or trimmed; games only holds a snapshot every so often
+            String createMovesTable = """
+            CREATE TABLE IF NOT EXISTS game_moves (
+                gameID INT NOT NULL,
+                ply INT NOT NULL,
+                move SMALLINT UNSIGNED NOT NULL,
+                PRIMARY KEY (gameID, ply),
+                FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE
+            )
+            """;
+
+            try (var stmt = conn.prepareStatement(createMovesTable)) {
+                stmt.executeUpdate();
+            }
 
 
         } catch (SQLException e) {
@@ -82,9 +103,59 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Games used to be stored as Gson JSON in a TEXT column. Switch an old table's
+     * column over to BLOB; the JSON already in it is kept as its UTF-8 bytes and
+     * MySQLGameDAO still reads it, rewriting each game in the binary format the
+     * next time it is saved.
+     */
+    static void migrateGamesTable(Connection conn) throws SQLException {
+        String columnType = """
+                SELECT DATA_TYPE FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games' AND COLUMN_NAME = 'game'
+                """;
+        try (var stmt = conn.prepareStatement(columnType)) {
+            var rs = stmt.executeQuery();
+            if (!rs.next() || rs.getString(1).toLowerCase().endsWith("blob")) {
+                return;
+            }
+        }
+        try (var stmt = conn.prepareStatement("ALTER TABLE games MODIFY game BLOB NOT NULL")) {
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds the columns that came after the games table was first made. Old rows get
+     * a snapshotPly of 0, which only means their journal is read from the start,
+     * and a gameOver of false; a game that ended before then still has the flag in
+     * its snapshot.
+     */
+    static void addGamesColumns(Connection conn) throws SQLException {
+        addColumn(conn, "snapshotPly", "INT NOT NULL DEFAULT 0");
+        addColumn(conn, "gameOver", "BOOLEAN NOT NULL DEFAULT FALSE");
+    }
+
+    private static void addColumn(Connection conn, String column, String definition) throws SQLException {
+        String exists = """
+                SELECT 1 FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games' AND COLUMN_NAME = ?
+                """;
+        try (var stmt = conn.prepareStatement(exists)) {
+            stmt.setString(1, column);
+            if (stmt.executeQuery().next()) {
+                return;
+            }
+        }
+        try (var stmt = conn.prepareStatement("ALTER TABLE games ADD " + column + " " + definition)) {
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Borrow a connection to the database from the connection pool. Its catalog is
+     * already set based upon the properties specified in db.properties. Connections
+     * to the database should be short-lived, and you must close the connection when
+     * you are done with it, which hands it back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -96,14 +167,45 @@ public class DatabaseManager {
     static Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().borrow();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * Counters for the connection pool: borrows, waits, timeouts and so on.
+     */
+    public static ConnectionPool.Metrics getPoolMetrics() {
+        return pool().metrics();
+    }
+
+    /**
+     * Closes the connection pool and every connection it holds, stopping its
+     * background sweep. A later getConnection starts a new pool.
+     */
+    public static synchronized void close() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    // The pool is only started once something needs a connection
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DatabaseManager::openConnection, poolSettings);
+        }
+        return pool;
+    }
+
+    // Opens a new physical connection for the pool
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -124,6 +226,10 @@ public class DatabaseManager {
 
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
-        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        // server-side prepares, so the statements the pool caches are parsed once on the server too
+        connectionUrl = String.format("jdbc:mysql://%s:%d?useServerPrepStmts=true", host, port);
+
+        // db.pool.* settings are optional; anything left out uses the pool's defaults
+        poolSettings = ConnectionPool.Settings.from(props);
     }
 }
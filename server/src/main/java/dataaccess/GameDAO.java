@@ -1,8 +1,12 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
+import model.GameSummary;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface GameDAO {
     // creates game returns the gameID
@@ -14,9 +18,21 @@ public interface GameDAO {
     //returns all games
     Collection<GameData> listGames() throws DataAccessException;
 
-    //updates an existing game
+    // returns every game's ID, name and players without loading the games themselves
+    Collection<GameSummary> listGameSummaries() throws DataAccessException;
+
+    // updates an existing game's players and name; its moves are only ever saved by appendMove
     void updateGame(GameData game) throws DataAccessException;
 
+    // marks a game over, as when a player resigns, without touching its saved moves
+    void endGame(int gameID) throws DataAccessException;
+
+    // saves one move that was just made in game, without rewriting the rest of the game
+    void appendMove(int gameID, ChessMove move, ChessGame game) throws DataAccessException;
+
+    // every move played in a game, oldest first; stored games only keep their moves in the journal
+    List<ChessMove> getMoves(int gameID) throws DataAccessException;
+
     // clears all games
     void clear() throws DataAccessException;
 }
@@ -1,7 +1,11 @@
 package dataaccess;
 
+import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
+import model.GameSummary;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -37,11 +41,49 @@ public class MemoryGameDAO implements GameDAO{
 
     }
 
+    @Override
+    public Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        var summaries = new ArrayList<GameSummary>();
+        for (GameData game : games.values()) {
+            summaries.add(new GameSummary(game.gameID(), game.whiteUsername(),
+                    game.blackUsername(), game.gameName()));
+        }
+        return summaries;
+    }
+
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        //replaces game with updated version
-        games.put(game.gameID(), game);
+        // only the players and name change; the stored game keeps its own moves
+        GameData existing = games.get(game.gameID());
+        if (existing != null) {
+            games.put(game.gameID(), new GameData(game.gameID(), game.whiteUsername(),
+                    game.blackUsername(), game.gameName(), existing.game()));
+        }
+    }
 
+    @Override
+    public void endGame(int gameID) throws DataAccessException {
+        GameData existing = games.get(gameID);
+        if (existing != null) {
+            existing.game().setGameOver(true);
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, ChessMove move, ChessGame game) throws DataAccessException {
+        // the game in memory already has the move, so just keep the latest copy
+        GameData existing = games.get(gameID);
+        if (existing != null) {
+            games.put(gameID, new GameData(gameID, existing.whiteUsername(),
+                    existing.blackUsername(), existing.gameName(), game));
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        // games in memory are never packed, so they still hold every move
+        GameData existing = games.get(gameID);
+        return existing == null ? List.of() : existing.game().getMoveHistory();
     }
 
     @Override
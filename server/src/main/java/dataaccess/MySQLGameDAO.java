@@ -1,14 +1,25 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
 import com.google.gson.Gson;
 import model.AuthData;
 import model.GameData;
+import model.GameSummary;
+
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MySQLGameDAO implements GameDAO {
+    // plies between full snapshots of a game; the moves in between are replayed from game_moves
+    static final int SNAPSHOT_INTERVAL = 20;
 
     public MySQLGameDAO() {
         try {
@@ -24,7 +35,9 @@ public class MySQLGameDAO implements GameDAO {
                 whiteUsername VARCHAR(100),
                 blackUsername VARCHAR(100),
                 gameName VARCHAR(100) NOT NULL,
-                game TEXT NOT NULL,
+                game BLOB NOT NULL,
+                snapshotPly INT NOT NULL DEFAULT 0,
+                gameOver BOOLEAN NOT NULL DEFAULT FALSE,
                 PRIMARY KEY (gameID)
             )
             """;
@@ -32,6 +45,23 @@ public class MySQLGameDAO implements GameDAO {
             try (var stmt = conn.prepareStatement(createTable)) {
                 stmt.executeUpdate();
             }
+            DatabaseManager.migrateGamesTable(conn);
+            DatabaseManager.addGamesColumns(conn);
+
+            // one row per move, never rewritten or trimmed, so it is the game's full record
+            String createMovesTable = """
+            CREATE TABLE IF NOT EXISTS game_moves (
+                gameID INT NOT NULL,
+                ply INT NOT NULL,
+                move SMALLINT UNSIGNED NOT NULL,
+                PRIMARY KEY (gameID, ply),
+                FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE
+            )
+            """;
+
+            try (var stmt = conn.prepareStatement(createMovesTable)) {
+                stmt.executeUpdate();
+            }
         } catch (SQLException e) {
             throw new RuntimeException("Unable to create games table", e);
         } catch (DataAccessException e) {
@@ -41,17 +71,17 @@ public class MySQLGameDAO implements GameDAO {
 
     @Override
     public int createGame(GameData game) throws DataAccessException {
-        // First, serialize the ChessGame to JSON
-        Gson gson = new Gson();
-        String gameJson = gson.toJson(game.game());
+        // First, pack the ChessGame into bytes
+        byte[] gameBytes = GameCodec.encode(game.game());
 
         try (var conn = DatabaseManager.getConnection()) {
-            String sql = "INSERT INTO games (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+            String sql = "INSERT INTO games (whiteUsername, blackUsername, gameName, game, snapshotPly) VALUES (?, ?, ?, ?, ?)";
             try (var stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 stmt.setString(1, game.whiteUsername());
                 stmt.setString(2, game.blackUsername());
                 stmt.setString(3, game.gameName());
-                stmt.setString(4, gameJson);  // The serialized ChessGame
+                stmt.setBytes(4, gameBytes);  // The packed ChessGame
+                stmt.setInt(5, game.game().getPlyCount());
 
                 stmt.executeUpdate();
 
@@ -70,7 +100,7 @@ public class MySQLGameDAO implements GameDAO {
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM games WHERE gameID = ?";
+            String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, game, gameOver FROM games WHERE gameID = ?";
 
             try (var stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, gameID);  // Use setInt for integer!
@@ -83,11 +113,10 @@ public class MySQLGameDAO implements GameDAO {
                     String whiteUsername = rs.getString("whiteUsername");
                     String blackUsername = rs.getString("blackUsername");
                     String gameName = rs.getString("gameName");
-                    String gameJson = rs.getString("game");
-
-                    // Deserialize the JSON back to ChessGame object
-                    Gson gson = new Gson();
-                    ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
+                    ChessGame chessGame = replayMoves(conn, foundGameID, readGame(rs.getBytes("game")));
+                    if (rs.getBoolean("gameOver")) {
+                        chessGame.setGameOver(true);
+                    }
 
                     // Return a GameData object with all fields
                     return new GameData(foundGameID, whiteUsername, blackUsername, gameName, chessGame);
@@ -105,7 +134,9 @@ public class MySQLGameDAO implements GameDAO {
         var games = new ArrayList<GameData>();  // Collection to hold games
 
         try (var conn = DatabaseManager.getConnection()) {
-            String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM games";
+            // every game's unsnapshotted moves in one query rather than one query per game
+            Map<Integer, Journal> journals = readJournals(conn);
+            String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, game, gameOver FROM games";
 
             try (var stmt = conn.prepareStatement(sql)) {
                 var rs = stmt.executeQuery();
@@ -115,11 +146,14 @@ public class MySQLGameDAO implements GameDAO {
                     String whiteUsername = rs.getString("whiteUsername");
                     String blackUsername = rs.getString("blackUsername");
                     String gameName = rs.getString("gameName");
-                    String gameJson = rs.getString("game");
-
-                    // Deserialize the JSON back to ChessGame object
-                    Gson gson = new Gson();
-                    ChessGame chessGame = gson.fromJson(gameJson, ChessGame.class);
+                    ChessGame chessGame = readGame(rs.getBytes("game"));
+                    Journal journal = journals.get(foundGameID);
+                    if (journal != null) {
+                        journal.replayOnto(foundGameID, chessGame);
+                    }
+                    if (rs.getBoolean("gameOver")) {
+                        chessGame.setGameOver(true);
+                    }
 
                     // Create a GameData object and add it to the list
                     GameData gameData = new GameData(foundGameID, whiteUsername, blackUsername, gameName, chessGame);
@@ -134,18 +168,38 @@ public class MySQLGameDAO implements GameDAO {
     }
 
     @Override
-    public void updateGame(GameData game) throws DataAccessException {
-        Gson gson = new Gson();
-        String gameJson = gson.toJson(game.game());
+    public Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        var summaries = new ArrayList<GameSummary>();
+
+        try (var conn = DatabaseManager.getConnection()) {
+            // leave the game column out so no game is read, sent over or decoded
+            String sql = "SELECT gameID, whiteUsername, blackUsername, gameName FROM games";
+
+            try (var stmt = conn.prepareStatement(sql)) {
+                var rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    summaries.add(new GameSummary(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"), rs.getString("gameName")));
+                }
+
+                return summaries;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing games");
+        }
+    }
 
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
+            // the game column is left alone: a copy loaded earlier could be moves behind the journal
+            String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ? WHERE gameID = ?";
             try (var stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, game.whiteUsername());
                 stmt.setString(2, game.blackUsername());
                 stmt.setString(3, game.gameName());
-                stmt.setString(4, gameJson);
-                stmt.setInt(5, game.gameID());
+                stmt.setInt(4, game.gameID());
 
                 stmt.executeUpdate();
 
@@ -155,9 +209,92 @@ public class MySQLGameDAO implements GameDAO {
         }
     }
 
+    @Override
+    public void endGame(int gameID) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            String sql = "UPDATE games SET gameOver = TRUE WHERE gameID = ?";
+            try (var stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, gameID);
+
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error ending game");
+        }
+    }
+
+    @Override
+    public void appendMove(int gameID, ChessMove move, ChessGame game) throws DataAccessException {
+        // the move just made is the last one in the game's history
+        int ply = game.getPlyCount();
+
+        try (var conn = DatabaseManager.getConnection()) {
+            // the move and the snapshot that includes it are saved together or not at all
+            conn.setAutoCommit(false);
+            try {
+                // only journal the move if the game is still going, so one made from a copy
+                // loaded before a resignation is turned away
+                String sql = "INSERT INTO game_moves (gameID, ply, move) SELECT gameID, ?, ? FROM games WHERE gameID = ? AND NOT gameOver";
+                try (var stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, ply);
+                    stmt.setInt(2, ChessMove.encode(move));
+                    stmt.setInt(3, gameID);
+
+                    if (stmt.executeUpdate() == 0) {
+                        throw new SQLException("Game " + gameID + " does not exist or is over");
+                    }
+                }
+
+                // Take a new snapshot now and then so replays stay short, and always once
+                // the game is over since no more moves will come to replay
+                if (ply % SNAPSHOT_INTERVAL == 0 || game.isGameOver()) {
+                    String snapshot = "UPDATE games SET game = ?, snapshotPly = ? WHERE gameID = ?";
+                    try (var stmt = conn.prepareStatement(snapshot)) {
+                        stmt.setBytes(1, GameCodec.encode(game));
+                        stmt.setInt(2, ply);
+                        stmt.setInt(3, gameID);
+
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving move");
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        var moves = new ArrayList<ChessMove>();
+
+        try (var conn = DatabaseManager.getConnection()) {
+            String sql = "SELECT move FROM game_moves WHERE gameID = ? ORDER BY ply";
+            try (var stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, gameID);
+
+                var rs = stmt.executeQuery();
+                while (rs.next()) {
+                    moves.add(ChessMove.decode(rs.getInt("move")));
+                }
+                return moves;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error getting moves");
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
+            try (var preparedStatement = conn.prepareStatement("DELETE FROM game_moves")) {
+                preparedStatement.executeUpdate();
+            }
             try (var preparedStatement = conn.prepareStatement("DELETE FROM games")) {
                 preparedStatement.executeUpdate();
             }
@@ -166,4 +303,81 @@ public class MySQLGameDAO implements GameDAO {
             throw new DataAccessException("Error clearing games");
         }
     }
+
+    // Plays the moves journaled after the snapshot was taken, bringing the game up to date
+    private static ChessGame replayMoves(Connection conn, int gameID, ChessGame game)
+            throws SQLException, DataAccessException {
+        var journal = new Journal();
+        String sql = "SELECT ply, move FROM game_moves WHERE gameID = ? AND ply > ? ORDER BY ply";
+        try (var stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, game.getPlyCount());
+
+            var rs = stmt.executeQuery();
+            while (rs.next()) {
+                journal.add(rs.getInt("ply"), rs.getInt("move"));
+            }
+        }
+        return journal.replayOnto(gameID, game);
+    }
+
+    private static Map<Integer, Journal> readJournals(Connection conn) throws SQLException {
+        var journals = new HashMap<Integer, Journal>();
+        // the journal keeps every move, so only read the ones after each game's snapshot
+        String sql = """
+                SELECT m.gameID, m.ply, m.move FROM game_moves m JOIN games g ON g.gameID = m.gameID
+                WHERE m.ply > g.snapshotPly ORDER BY m.gameID, m.ply
+                """;
+        try (var stmt = conn.prepareStatement(sql)) {
+            var rs = stmt.executeQuery();
+            while (rs.next()) {
+                journals.computeIfAbsent(rs.getInt("gameID"), id -> new Journal())
+                        .add(rs.getInt("ply"), rs.getInt("move"));
+            }
+        }
+        return journals;
+    }
+
+    // One game's journaled moves, in ply order
+    private static final class Journal {
+        private int[] plies = new int[SNAPSHOT_INTERVAL];
+        private int[] moves = new int[SNAPSHOT_INTERVAL];
+        private int size;
+
+        void add(int ply, int move) {
+            if (size == plies.length) {
+                plies = Arrays.copyOf(plies, size * 2);
+                moves = Arrays.copyOf(moves, size * 2);
+            }
+            plies[size] = ply;
+            moves[size] = move;
+            size++;
+        }
+
+        // plays the moves the snapshot doesn't already hold, trusting they were checked when first made
+        ChessGame replayOnto(int gameID, ChessGame game) throws DataAccessException {
+            int start = 0;
+            while (start < size && plies[start] <= game.getPlyCount()) {
+                start++;
+            }
+            try {
+                GameCodec.replay(game, Arrays.copyOfRange(moves, start, size));
+            } catch (RuntimeException e) {
+                throw new DataAccessException("Error replaying game " + gameID, e);
+            }
+            return game;
+        }
+    }
+
+    // Rows saved before the binary format hold Gson JSON, which always starts with '{'
+    private static ChessGame readGame(byte[] bytes) throws DataAccessException {
+        try {
+            if (bytes.length > 0 && bytes[0] == '{') {
+                return new Gson().fromJson(new String(bytes, StandardCharsets.UTF_8), ChessGame.class);
+            }
+            return GameCodec.decode(bytes);
+        } catch (RuntimeException e) {
+            throw new DataAccessException("Error reading game", e);
+        }
+    }
 }
@@ -22,6 +22,8 @@ public class Server {
     private final ClearService clearService;
     private final UserService userService;
     private final GameService gameService;
+    // WebSocket handler, kept so the bot's threads can be stopped with the server
+    private server.websocket.WebSocketHandler wsHandler;
 
 
 
@@ -35,9 +37,10 @@ public class Server {
         javalin.get("/game", this::handleListGames);
         javalin.post("/game", this::handleCreateGame);
         javalin.put("/game", this::handleJoinGame);
+        javalin.put("/game/bot", this::handleAddBot);
 
         // WebSocket endpoint - create ONE shared handler for ALL connections
-        var wsHandler = new server.websocket.WebSocketHandler(authDAO, gameDAO);
+        wsHandler = new server.websocket.WebSocketHandler(authDAO, gameDAO);
 
         javalin.ws("/ws", ws -> {
             ws.onConnect(ctx -> {
@@ -71,7 +74,7 @@ public class Server {
             ctx.status(400);
         } else if ("Error: unauthorized".equals(message)) {
             ctx.status(401);
-        } else if ("Error: already taken".equals(message)) {
+        } else if ("Error: already taken".equals(message) || "Error: forbidden".equals(message)) {
             ctx.status(403);
         } else {
             // Any other DataAccessException is an Internal Server Error.
@@ -198,6 +201,21 @@ public class Server {
         }
     }
 
+    // Seat the computer player in a game; same body as joining, with the color the bot should play
+    private void handleAddBot(Context ctx) {
+        try {
+            String authToken = authHeader(ctx);
+            JoinGameRequest request = gson.fromJson(ctx.body(), JoinGameRequest.class);
+            gameService.addBot(request, authToken);
+            // the bot may be first to move, and shouldn't have to wait for anyone to connect
+            wsHandler.botSeated(request.gameID());
+            ctx.status(200);
+            ctx.result("{}");
+        } catch (DataAccessException e) {
+            handleError(ctx, e);
+        }
+    }
+
 
     public Server() {
         javalin = Javalin.create(config -> {
@@ -230,5 +248,7 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        wsHandler.close();
+        DatabaseManager.close();
     }
 }
\ No newline at end of file
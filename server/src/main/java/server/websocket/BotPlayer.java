@@ -0,0 +1,125 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.engine.Search;
+import chess.engine.TranspositionTable;
+import service.GameService;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the computer player's searches. They go on a small pool of their own so
+ * a bot thinking for a second never holds up the WebSocket threads that send
+ * moves and notifications for every other game.
+ * <p>
+ * The pool and its queue are both bounded. When they are full a request is
+ * turned away instead of piling up, and a game only ever has one search
+ * queued or running at a time. A turn releases its game before it plays its
+ * move, so the next turn can be queued as soon as the move is out.
+ */
+public class BotPlayer {
+    public static final String USERNAME = GameService.BOT_USERNAME;
+
+    private static final int DEFAULT_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int DEFAULT_QUEUE_SIZE = 32;
+    private static final long DEFAULT_THINK_MILLIS = 1000;
+    private static final int MAX_DEPTH = 32;
+    private static final int TABLE_MEGABYTES = 16;
+
+    // what happened to a request for the bot to move
+    public enum Submission {
+        QUEUED,
+        // a turn for the game is already waiting or thinking, and it will reload the game when it runs
+        ALREADY_QUEUED,
+        // every thread and queue slot is taken
+        REJECTED
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final long thinkMillis;
+    // games with a search queued or running, each with the token of the turn that holds it
+    private final ConcurrentHashMap<Integer, Object> pending = new ConcurrentHashMap<>();
+    // each worker keeps its own search, and its table stays warm between moves
+    private final ThreadLocal<Search> searches =
+            ThreadLocal.withInitial(() -> new Search(new TranspositionTable(TABLE_MEGABYTES)));
+
+    public BotPlayer() {
+        this(DEFAULT_THREADS, DEFAULT_QUEUE_SIZE, DEFAULT_THINK_MILLIS);
+    }
+
+    /**
+     * @param threads     searches that can run at once
+     * @param queueSize   searches that can wait for a thread
+     * @param thinkMillis time the bot gets for each move
+     */
+    public BotPlayer(int threads, int queueSize, long thinkMillis) {
+        this.thinkMillis = thinkMillis;
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "chess-bot-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static boolean isBot(String username) {
+        return USERNAME.equals(username);
+    }
+
+    /**
+     * Queues the bot's turn in a game
+     *
+     * @param gameID game the bot has to move in
+     * @param turn   work to run on a bot thread; it should call release before playing its move
+     */
+    public Submission submit(Integer gameID, Runnable turn) {
+        Object token = new Object();
+        if (pending.putIfAbsent(gameID, token) != null) {
+            return Submission.ALREADY_QUEUED;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    turn.run();
+                } finally {
+                    // only clears this turn's hold, never one a later request took after release
+                    pending.remove(gameID, token);
+                }
+            });
+            return Submission.QUEUED;
+        } catch (RejectedExecutionException e) {
+            pending.remove(gameID, token);
+            return Submission.REJECTED;
+        }
+    }
+
+    /**
+     * Lets another turn be queued for the game. Called by a running turn once it
+     * has its move, before the move goes out and the other side can answer.
+     */
+    public void release(Integer gameID) {
+        pending.remove(gameID);
+    }
+
+    /**
+     * Picks a move for the side to move. Only meant to be called from a bot thread.
+     *
+     * @return the move to play, or null if there is none
+     */
+    public ChessMove chooseMove(ChessGame game) {
+        return searches.get().search(game, MAX_DEPTH, thinkMillis).bestMove();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -2,7 +2,7 @@ package server.websocket;
 
 import org.eclipse.jetty.websocket.api.Session;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 import com.google.gson.Gson;
 import websocket.messages.ServerMessage;
 import java.io.IOException;
@@ -10,7 +10,8 @@ import java.io.IOException;
 public class ConnectionManager {
 
     // Maps gameID -> list of connections for that game
-    private final ConcurrentHashMap<Integer, ArrayList<Connection>> connections = new ConcurrentHashMap<>();
+    // Bot threads broadcast alongside the WebSocket threads, so the lists have to be safe to share
+    private final ConcurrentHashMap<Integer, CopyOnWriteArrayList<Connection>> connections = new ConcurrentHashMap<>();
 
 
     // Inner class to represent one connection
@@ -22,10 +23,17 @@ public class ConnectionManager {
             this.username = username;
             this.session = session;
         }
+
+        // Jetty allows one blocking send at a time per session
+        void send(String json) throws IOException {
+            synchronized (session) {
+                session.getRemote().sendString(json);
+            }
+        }
     }
     public void add(Integer gameID, String username, Session session) {
         var connection = new Connection(username, session);
-        connections.computeIfAbsent(gameID, k -> new ArrayList<>()).add(connection);
+        connections.computeIfAbsent(gameID, k -> new CopyOnWriteArrayList<>()).add(connection);
     }
 
     // Remove a connection from a game
@@ -39,12 +47,17 @@ public class ConnectionManager {
         }
     }
 
+    // Drop every connection for a game that has ended
+    public void removeGame(Integer gameID) {
+        connections.remove(gameID);
+    }
+
     public void sendToUser(Integer gameID, String username, ServerMessage message) throws IOException {
         var gameConnections = connections.get(gameID);
         if (gameConnections != null) {
             for (var conn : gameConnections) {
                 if (conn.username.equals(username) && conn.session.isOpen()) {
-                    conn.session.getRemote().sendString(new Gson().toJson(message));
+                    conn.send(new Gson().toJson(message));
                 }
             }
         }
@@ -56,7 +69,7 @@ public class ConnectionManager {
             var json = new Gson().toJson(message);
             for (var conn : gameConnections) {
                 if (conn.session.isOpen() && !conn.username.equals(excludeUsername)) {
-                    conn.session.getRemote().sendString(json);
+                    conn.send(json);
                 }
             }
         }
@@ -69,7 +82,7 @@ public class ConnectionManager {
             var json = new Gson().toJson(message);
             for (var conn : gameConnections) {
                 if (conn.session.isOpen()) {
-                    conn.session.getRemote().sendString(json);
+                    conn.send(json);
                 }
             }
         }
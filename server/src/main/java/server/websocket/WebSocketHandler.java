@@ -5,6 +5,7 @@ import dataaccess.GameDAO;
 import model.GameData;
 import websocket.commands.MakeMoveCommand;
 import org.eclipse.jetty.websocket.api.Session;
+import service.GameService;
 import org.eclipse.jetty.websocket.api.annotations.*;
 import com.google.gson.Gson;
 import websocket.commands.UserGameCommand;
@@ -23,10 +24,23 @@ public class WebSocketHandler {
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
 
+    // Thinks for the bot on its own threads so searches never stall these handlers
+    private final BotPlayer bot;
+
     // Constructor to inject DAOs
     public WebSocketHandler(AuthDAO authDAO, GameDAO gameDAO) {
+        this(authDAO, gameDAO, new BotPlayer());
+    }
+
+    public WebSocketHandler(AuthDAO authDAO, GameDAO gameDAO, BotPlayer bot) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
+        this.bot = bot;
+    }
+
+    // Stop the bot's threads when the server shuts down
+    public void close() {
+        bot.shutdown();
     }
 
     // Called when a client establishes a WebSocket connection
@@ -69,7 +83,7 @@ public class WebSocketHandler {
     // Handle CONNECT command - user joining a game
     private void handleConnect(String authToken, Integer gameID, Session session) throws Exception {
         // Step 1: Verify authToken and get username
-        var authData = authDAO.getAuth(authToken);
+        var authData = GameService.findAuth(authDAO, authToken);
         if (authData == null) {
             // Send error directly to this session since they're not in ConnectionManager yet
             session.getRemote().sendString(new Gson().toJson(new ErrorMessage("Error: Invalid auth token")));
@@ -94,6 +108,9 @@ public class WebSocketHandler {
         // Step 5: Send NOTIFICATION to everyone else that this user joined
         String role = determineRole(game, username);
         connections.broadcast(gameID, username, new NotificationMessage(username + " joined as " + role));
+
+        // Step 6: If the bot has the first move (or missed its turn), get it thinking
+        scheduleBotMove(game);
     }
 
     // Determine if user is playing WHITE, BLACK, or is an OBSERVER
@@ -110,7 +127,7 @@ public class WebSocketHandler {
     // Handle MAKE_MOVE command - user making a move
     private void handleMakeMove(MakeMoveCommand command, Session session) throws Exception {
         // Step 1: Verify authToken and get username
-        var authData = authDAO.getAuth(command.getAuthToken());
+        var authData = GameService.findAuth(authDAO, command.getAuthToken());
         if (authData == null) {
             // Send error directly to session since they might not be in ConnectionManager
             session.getRemote().sendString(new Gson().toJson(new ErrorMessage("Error: Invalid auth token")));
@@ -141,23 +158,117 @@ public class WebSocketHandler {
             return;
         }
 
-        // Step 5: Update game in database
-        var updatedGameData = new GameData(command.getGameID(), gameData.whiteUsername(),
-                gameData.blackUsername(), gameData.gameName(), game);
-        gameDAO.updateGame(updatedGameData);        // Step 6: Send LOAD_GAME to everyone
-        connections.broadcastToAll(command.getGameID(), new LoadGameMessage(game));
+        // Steps 5-10: save the move, tell everyone, and hand over to the bot if it's next
+        finishMove(gameData, game, username, command.getMove());
+    }
+
+    // Everything that happens after a move is made, whether a player or the bot made it
+    private void finishMove(GameData gameData, chess.ChessGame game, String username,
+                            chess.ChessMove move) throws Exception {
+        Integer gameID = gameData.gameID();
+
+        // Step 5: End the game if that move finished it, so the saved game refuses more moves
+        boolean drawn = game.isDraw();
+        if (drawn || game.getStatus().isFinished()) {
+            game.setGameOver(true);
+        }
+
+        // Step 6: Save the move; the DAO only rewrites the whole game every so often
+        gameDAO.appendMove(gameID, move, game);
 
-        // Step 7: Send NOTIFICATION to everyone else about the move
-        connections.broadcast(command.getGameID(), username,
-                new NotificationMessage(username + " made a move: " + command.getMove()));
+        // Step 7: Send LOAD_GAME to everyone
+        connections.broadcastToAll(gameID, new LoadGameMessage(game));
 
-        // Step 8: Check for check/checkmate and notify
-        checkGameStatus(command.getGameID(), game);
+        // Step 8: Send NOTIFICATION to everyone else about the move
+        connections.broadcast(gameID, username, new NotificationMessage(username + " made a move: " + move));
+
+        // Step 9: Check for check/checkmate/draw and notify
+        checkGameStatus(gameID, game);
+
+        // Step 10: Nothing more can happen in a drawn game, so stop tracking its connections
+        if (drawn) {
+            connections.removeGame(gameID);
+            return;
+        }
+
+        // Step 11: Let the bot reply if it holds the side to move
+        scheduleBotMove(new GameData(gameID, gameData.whiteUsername(),
+                gameData.blackUsername(), gameData.gameName(), game));
+    }
+
+    /**
+     * Starts the bot's turn in a game it was just seated in, if it's on the side to
+     * move. Otherwise a bot playing white would sit idle until someone connected.
+     */
+    public void botSeated(int gameID) {
+        try {
+            var gameData = gameDAO.getGame(gameID);
+            if (gameData != null) {
+                scheduleBotMove(gameData);
+            }
+        } catch (Exception e) {
+            // the seat is taken either way; the bot gets another chance when someone connects
+            System.err.println("Could not start the bot in game " + gameID + ": " + e.getMessage());
+        }
+    }
+
+    // Queue a bot move if the bot is seated on the side to move of a live game
+    private void scheduleBotMove(GameData gameData) throws Exception {
+        var game = gameData.game();
+        if (game.isGameOver() || !isPlayersTurn(gameData, BotPlayer.USERNAME, game)) {
+            return;
+        }
+        Integer gameID = gameData.gameID();
+        var submission = bot.submit(gameID, () -> {
+            try {
+                playBotMove(gameID);
+            } catch (Exception e) {
+                System.err.println("Bot move failed in game " + gameID + ": " + e.getMessage());
+            }
+        });
+        if (submission == BotPlayer.Submission.REJECTED) {
+            // Every bot thread is busy; the turn is picked up again when a player reconnects
+            connections.broadcastToAll(gameID, new ErrorMessage("Error: " + BotPlayer.USERNAME
+                    + " is too busy to move right now. Reconnect to the game to try again."));
+        }
+        // ALREADY_QUEUED needs nothing: that turn reloads the game before it thinks
+    }
+
+    // Runs on a bot thread: search the saved position and play the move
+    private void playBotMove(Integer gameID) throws Exception {
+        // Step 1: Load the game and make sure it's still the bot's turn
+        var gameData = gameDAO.getGame(gameID);
+        if (gameData == null || gameData.game().isGameOver()
+                || !isPlayersTurn(gameData, BotPlayer.USERNAME, gameData.game())) {
+            return;
+        }
+        long position = gameData.game().getPositionHash();
+
+        // Step 2: Think
+        chess.ChessMove move = bot.chooseMove(gameData.game());
+        if (move == null) {
+            return;
+        }
+
+        // Step 3: Reload - a player may have resigned or left while the bot was thinking
+        gameData = gameDAO.getGame(gameID);
+        if (gameData == null || gameData.game().isGameOver()
+                || !isPlayersTurn(gameData, BotPlayer.USERNAME, gameData.game())
+                || gameData.game().getPositionHash() != position) {
+            return;
+        }
+
+        // Step 4: Make the move and carry on exactly as for a player's move. Let go of the
+        // game first, so the bot's next turn can be queued as soon as this move is out
+        var game = gameData.game();
+        game.makeMove(move);
+        bot.release(gameID);
+        finishMove(gameData, game, BotPlayer.USERNAME, move);
     }
     // Handle LEAVE command - user leaving a game
     private void handleLeave(String authToken, Integer gameID) throws Exception {
         // Step 1: Verify authToken and get username
-        var authData = authDAO.getAuth(authToken);
+        var authData = GameService.findAuth(authDAO, authToken);
         if (authData == null) {
             return; // Invalid auth, just ignore
         }
@@ -194,7 +305,7 @@ public class WebSocketHandler {
     // Handle RESIGN command - user resigning from a game
     private void handleResign(String authToken, Integer gameID) throws Exception {
         // Step 1: Verify authToken and get username
-        var authData = authDAO.getAuth(authToken);
+        var authData = GameService.findAuth(authDAO, authToken);
         if (authData == null) {
             return; // Invalid auth, just ignore
         }
@@ -220,13 +331,8 @@ public class WebSocketHandler {
             return;
         }
 
-        // Step 5: Mark game as over
-        game.setGameOver(true);
-
-        // Step 6: Update game in database
-        var updatedGameData = new GameData(gameID, gameData.whiteUsername(),
-                gameData.blackUsername(), gameData.gameName(), game);
-        gameDAO.updateGame(updatedGameData);
+        // Step 5-6: Mark the game over in the database; the saved moves are left as they are
+        gameDAO.endGame(gameID);
 
         // Step 7: Send NOTIFICATION to everyone that game is over
         connections.broadcastToAll(gameID, new NotificationMessage(username + " resigned. Game over."));
@@ -242,20 +348,25 @@ public class WebSocketHandler {
         }
     }
 
-    // Check game status and send notifications for check/checkmate/stalemate
+    // Check game status and send notifications for check/checkmate/stalemate/draws
     private void checkGameStatus(Integer gameID, chess.ChessGame game) throws Exception {
-        var white = chess.ChessGame.TeamColor.WHITE;
-        var black = chess.ChessGame.TeamColor.BLACK;
-
-        if (game.isInCheckmate(white)) {
-            connections.broadcastToAll(gameID, new NotificationMessage("WHITE is in checkmate! BLACK wins!"));
-        } else if (game.isInCheckmate(black)) {
-            connections.broadcastToAll(gameID, new NotificationMessage("BLACK is in checkmate! WHITE wins!"));
-        } else if (game.isInCheck(white)) {
-            connections.broadcastToAll(gameID, new NotificationMessage("WHITE is in check!"));
-        } else if (game.isInCheck(black)) {
-            connections.broadcastToAll(gameID, new NotificationMessage("BLACK is in check!"));
-        } else if (game.isInStalemate(white) || game.isInStalemate(black)) {
+        // makeMove already worked out the status for the team to move, so this is just a read.
+        // Only that team can be in check, checkmate or stalemate after a legal move.
+        var status = game.getStatus();
+        var side = status.sideToMove();
+        var winner = side == chess.ChessGame.TeamColor.WHITE ? "BLACK" : "WHITE";
+
+        // Draws come before plain check: a perpetual check ends the game, and this is the
+        // last message players get before the game's connections are dropped
+        if (status.checkmate()) {
+            connections.broadcastToAll(gameID, new NotificationMessage(side + " is in checkmate! " + winner + " wins!"));
+        } else if (game.isThreefoldRepetition()) {
+            connections.broadcastToAll(gameID, new NotificationMessage("Game ended in a draw by threefold repetition!"));
+        } else if (game.isFiftyMoveRule()) {
+            connections.broadcastToAll(gameID, new NotificationMessage("Game ended in a draw by the fifty move rule!"));
+        } else if (status.inCheck()) {
+            connections.broadcastToAll(gameID, new NotificationMessage(side + " is in check!"));
+        } else if (status.stalemate()) {
             connections.broadcastToAll(gameID, new NotificationMessage("Game ended in stalemate!"));
         }
     }
@@ -9,6 +9,9 @@ import model.*;
 import java.util.Collection;
 
 public class GameService {
+    // Name the computer player sits in a game under; UserService will not register it or log it in
+    public static final String BOT_USERNAME = "chessbot";
+
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
 
@@ -18,9 +21,21 @@ public class GameService {
 
     }
 
+    /**
+     * Looks up a session, refusing any held under the bot's name. An account with
+     * that name from before it was reserved keeps its old tokens, and must not be
+     * able to move as the bot.
+     *
+     * @return the session, or null if the token is unknown or is the bot's
+     */
+    public static AuthData findAuth(AuthDAO authDAO, String authToken) throws DataAccessException {
+        AuthData auth = authDAO.getAuth(authToken);
+        return auth == null || BOT_USERNAME.equals(auth.username()) ? null : auth;
+    }
+
     public CreateGameResponse createGame(CreateGameRequest request, String authToken) throws DataAccessException {
         //  authToken is not valid
-        if (authDAO.getAuth(authToken) == null) {
+        if (findAuth(authDAO, authToken) == null) {
             throw new DataAccessException("Error: unauthorized");
         }
 
@@ -43,12 +58,12 @@ public class GameService {
 
     public ListGamesResponse listGames(String authToken) throws DataAccessException {
         //  authToken is not valid
-        if (authDAO.getAuth(authToken) == null) {
+        if (findAuth(authDAO, authToken) == null) {
             throw new DataAccessException("Error: unauthorized");
         }
 
-        // Get all games
-        Collection<GameData> games = gameDAO.listGames();
+        // Get all games - the lobby only needs names and players, not the boards
+        Collection<GameSummary> games = gameDAO.listGameSummaries();
 
         // Return list of games
         return new ListGamesResponse(games);
@@ -56,7 +71,7 @@ public class GameService {
 
     public void joinGame(JoinGameRequest request, String authToken) throws DataAccessException {
         // Verify authToken is valid and get the username
-        AuthData auth = authDAO.getAuth(authToken);
+        AuthData auth = findAuth(authDAO, authToken);
         if (auth == null) {
             throw new DataAccessException("Error: unauthorized");
         }
@@ -72,7 +87,49 @@ public class GameService {
         if (game == null) {
             throw new DataAccessException("Error: bad request");
         }
+
+        // Take the seat for this user
+        seatPlayer(game, request.playerColor(), username);
+    }
+
+    public void addBot(JoinGameRequest request, String authToken) throws DataAccessException {
+        // Only a signed in user can invite the bot
+        AuthData auth = findAuth(authDAO, authToken);
+        if (auth == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+
+        // gameID not provided
+        if (request == null || request.gameID() == 0) {
+            throw new DataAccessException("Error: bad request");
+        }
+
+        // Get game
+        GameData game = gameDAO.getGame(request.gameID());
+        if (game == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+
+        // Only the player in the other seat can invite the bot to play them. That also
+        // means the bot can never end up holding both seats.
         String color = request.playerColor();
+        String opponent;
+        if ("WHITE".equals(color)) {
+            opponent = game.blackUsername();
+        } else if ("BLACK".equals(color)) {
+            opponent = game.whiteUsername();
+        } else {
+            throw new DataAccessException("Error: bad request");
+        }
+        if (!auth.username().equals(opponent)) {
+            throw new DataAccessException("Error: forbidden");
+        }
+
+        // Seat the bot exactly as a player would be; the server then starts it if it's the bot's turn
+        seatPlayer(game, color, BOT_USERNAME);
+    }
+
+    private void seatPlayer(GameData game, String color, String username) throws DataAccessException {
         // Validate playerColor: must not be null or empty, and must be WHITE or BLACK
         if (color == null || color.isEmpty()) {
             // Catches null AND ""
@@ -85,9 +142,9 @@ public class GameService {
         }
 
         // Handle joining as a player (WHITE or BLACK)
-        if (request.playerColor() != null) {
+        if (color != null) {
             // white spot is already taken
-            if (request.playerColor().equals("WHITE")) {
+            if (color.equals("WHITE")) {
                 if (game.whiteUsername() != null) {
                     throw new DataAccessException("Error: already taken");
                 }
@@ -23,7 +23,8 @@ public class UserService {
         if (request == null || isBlank(request.username()) || isBlank(request.password()) || isBlank(request.email())) {
             throw new DataAccessException("Error: bad request");
         }
-        if (userDAO.getUser(request.username()) != null) {
+        // the bot's name is reserved so nobody can play moves as it
+        if (userDAO.getUser(request.username()) != null || GameService.BOT_USERNAME.equals(request.username())) {
             throw new DataAccessException("Error: already taken");
         }
 
@@ -47,6 +48,10 @@ public class UserService {
         if (request == null || isBlank(request.username()) || isBlank(request.password())) {
             throw new DataAccessException("Error: bad request");
         }
+        // the bot's name is reserved, even if an account took it before it was
+        if (GameService.BOT_USERNAME.equals(request.username())) {
+            throw new DataAccessException("Error: unauthorized");
+        }
 
         // get user from UserDAO
         UserData user = userDAO.getUser(request.username());
@@ -79,7 +84,7 @@ public class UserService {
 
     public void logout(String authToken) throws DataAccessException {
         // Check if authToken exists
-        if (isBlank(authToken) || authDAO.getAuth(authToken) == null) {
+        if (isBlank(authToken) || GameService.findAuth(authDAO, authToken) == null) {
             throw new DataAccessException("Error: unauthorized");
         }
         // removes the authToken from storage, so it's no longer valid.
@@ -0,0 +1,294 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    // Stand-in for a MySQL connection that only tracks whether it's open and valid
+    private static class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+        final List<FakeStatement> prepared = new ArrayList<>();
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "isValid" -> valid && !closed;
+                        case "getAutoCommit" -> true;
+                        case "prepareStatement" -> {
+                            var statement = new FakeStatement();
+                            prepared.add(statement);
+                            yield statement.proxy();
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    private static class FakeStatement {
+        boolean closed;
+        final List<FakeResultSet> results = new ArrayList<>();
+
+        PreparedStatement proxy() {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "executeQuery", "getGeneratedKeys" -> {
+                            var resultSet = new FakeResultSet();
+                            results.add(resultSet);
+                            yield resultSet.proxy();
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    private static class FakeResultSet {
+        boolean closed;
+
+        ResultSet proxy() {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "next" -> false;
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    private ConnectionPool createPool(int minSize, int maxSize, long idleTimeoutMillis) {
+        return createPool(minSize, maxSize, idleTimeoutMillis, 32);
+    }
+
+    private ConnectionPool createPool(int minSize, int maxSize, long idleTimeoutMillis, int statementCacheSize) {
+        // validate on every borrow and leave the background sweep off so tests control it
+        var settings = new ConnectionPool.Settings(minSize, maxSize, 50, idleTimeoutMillis,
+                1_800_000, 1, 0, 0, statementCacheSize);
+        pool = new ConnectionPool(() -> {
+            var fake = new FakeConnection();
+            opened.add(fake);
+            return fake.proxy();
+        }, settings);
+        return pool;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    @DisplayName("Closed Connections Are Reused")
+    public void closedConnectionIsReused() throws SQLException {
+        createPool(0, 2, 600_000);
+
+        pool.borrow().close();
+        pool.borrow().close();
+
+        assertEquals(1, opened.size(), "Second borrow should reuse the first connection");
+        assertFalse(opened.get(0).closed, "Returning a connection should not close it");
+        assertEquals(2, pool.metrics().borrows());
+        assertEquals(1, pool.metrics().idle());
+    }
+
+    @Test
+    @DisplayName("Borrow Times Out When Every Connection Is In Use")
+    public void borrowTimesOut() throws SQLException {
+        createPool(0, 1, 600_000);
+
+        try (var held = pool.borrow()) {
+            assertThrows(SQLTimeoutException.class, () -> pool.borrow());
+            assertEquals(1, pool.metrics().timeouts());
+            assertEquals(1, pool.metrics().inUse());
+        }
+        assertEquals(0, pool.metrics().inUse());
+    }
+
+    @Test
+    @DisplayName("Invalid Idle Connection Is Replaced")
+    public void invalidConnectionIsReplaced() throws SQLException {
+        createPool(0, 2, 600_000);
+
+        pool.borrow().close();
+        opened.get(0).valid = false;
+        pool.borrow().close();
+
+        assertEquals(2, opened.size(), "A fresh connection should replace the invalid one");
+        assertTrue(opened.get(0).closed, "The invalid connection should be closed");
+        assertEquals(1, pool.metrics().validationFailures());
+    }
+
+    @Test
+    @DisplayName("Returned Connection Cannot Be Used Again")
+    public void returnedConnectionRejectsCalls() throws SQLException {
+        createPool(0, 2, 600_000);
+
+        var conn = pool.borrow();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.prepareStatement("SELECT 1"));
+    }
+
+    @Test
+    @DisplayName("Eviction Closes Idle Connections Down To The Minimum")
+    public void evictionKeepsMinimum() throws SQLException {
+        createPool(1, 3, 0);
+
+        var first = pool.borrow();
+        var second = pool.borrow();
+        var third = pool.borrow();
+        first.close();
+        second.close();
+        third.close();
+
+        pool.evict();
+
+        assertEquals(1, pool.metrics().open(), "Only minSize connections should stay open");
+        assertEquals(2, opened.stream().filter(fake -> fake.closed).count());
+    }
+
+    @Test
+    @DisplayName("Evictions Running Together Still Keep The Minimum")
+    public void concurrentEvictionKeepsMinimum() throws Exception {
+        createPool(2, 16, 0);
+
+        // the race is narrow, so give it plenty of rounds to show up in
+        for (int round = 0; round < 200; round++) {
+            var held = new ArrayList<Connection>();
+            for (int i = 0; i < 16; i++) {
+                held.add(pool.borrow());
+            }
+            for (var conn : held) {
+                conn.close();
+            }
+            long createdBefore = pool.metrics().created();
+
+            var start = new CountDownLatch(1);
+            var threads = new ArrayList<Thread>();
+            for (int i = 0; i < 8; i++) {
+                var thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    pool.evict();
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (var thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(2, pool.metrics().open(), "Evictions should never take the pool below minSize");
+            // none of them should have gone under and had to open a replacement
+            assertEquals(createdBefore, pool.metrics().created());
+        }
+    }
+
+    @Test
+    @DisplayName("Prepared Statements Are Reused Across Borrows")
+    public void statementIsCached() throws SQLException {
+        createPool(0, 1, 600_000);
+
+        for (int i = 0; i < 2; i++) {
+            try (var conn = pool.borrow();
+                 var stmt = conn.prepareStatement("SELECT 1")) {
+                assertFalse(stmt.isClosed());
+            }
+        }
+
+        var fake = opened.get(0);
+        assertEquals(1, fake.prepared.size(), "SQL should only be prepared once per connection");
+        assertFalse(fake.prepared.get(0).closed, "Closing should return the statement to the cache");
+        assertEquals(1, pool.metrics().statementHits());
+        assertEquals(1, pool.metrics().statementMisses());
+    }
+
+    @Test
+    @DisplayName("Closing A Cached Statement Closes Its Result Sets")
+    public void statementCloseClosesResults() throws SQLException {
+        createPool(0, 1, 600_000);
+
+        try (var conn = pool.borrow();
+             var stmt = conn.prepareStatement("SELECT 1", Statement.RETURN_GENERATED_KEYS)) {
+            // left open on purpose, the way the DAOs leave theirs
+            stmt.executeQuery();
+            stmt.getGeneratedKeys();
+        }
+
+        var statement = opened.get(0).prepared.get(0);
+        assertFalse(statement.closed, "The statement itself should stay cached");
+        assertEquals(2, statement.results.size());
+        assertTrue(statement.results.stream().allMatch(resultSet -> resultSet.closed),
+                "Result sets should not outlive the caller's handle");
+    }
+
+    @Test
+    @DisplayName("Least Recently Used Statement Is Closed When Cache Is Full")
+    public void statementCacheEvictsOldest() throws SQLException {
+        createPool(0, 1, 600_000, 1);
+
+        try (var conn = pool.borrow()) {
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 2").close();
+        }
+
+        var fake = opened.get(0);
+        assertTrue(fake.prepared.get(0).closed, "The older statement should be evicted and closed");
+        assertFalse(fake.prepared.get(1).closed);
+    }
+
+    @Test
+    @DisplayName("Statement Still In Use Is Not Handed Out Twice")
+    public void statementInUseIsNotShared() throws SQLException {
+        createPool(0, 1, 600_000);
+
+        try (var conn = pool.borrow();
+             var outer = conn.prepareStatement("SELECT 1");
+             var inner = conn.prepareStatement("SELECT 1")) {
+            assertNotSame(outer, inner);
+        }
+
+        assertEquals(2, opened.get(0).prepared.size());
+        assertEquals(0, pool.metrics().statementHits());
+    }
+}
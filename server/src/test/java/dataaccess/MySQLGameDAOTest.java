@@ -1,7 +1,11 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import model.GameData;
+import model.GameSummary;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.Collection;
@@ -72,6 +76,22 @@ public class MySQLGameDAOTest {
         assertEquals(0, games.size());
     }
 
+    @Test
+    public void listGameSummariesPositive() throws DataAccessException {
+        int id = gameDAO.createGame(new GameData(0, "white", "black", "summary", new ChessGame()));
+
+        Collection<GameSummary> summaries = gameDAO.listGameSummaries();
+        assertEquals(1, summaries.size());
+        assertEquals(new GameSummary(id, "white", "black", "summary"), summaries.iterator().next());
+    }
+
+    @Test
+    public void listGameSummariesNegative() throws DataAccessException {
+        Collection<GameSummary> summaries = gameDAO.listGameSummaries();
+        assertNotNull(summaries);
+        assertEquals(0, summaries.size());
+    }
+
     @Test
     public void updateGamePositive() throws DataAccessException {
         ChessGame game = new ChessGame();
@@ -99,6 +119,90 @@ public class MySQLGameDAOTest {
         assertNull(result);
     }
 
+    @Test
+    public void updateGameKeepsMoves() throws DataAccessException, InvalidMoveException {
+        int id = gameDAO.createGame(new GameData(0, null, null, "game", new ChessGame()));
+        GameData stale = gameDAO.getGame(id);
+
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+        gameDAO.appendMove(id, move, game);
+
+        // a copy loaded before the move must not roll the game back
+        gameDAO.updateGame(new GameData(id, "white", null, "game", stale.game()));
+
+        GameData result = gameDAO.getGame(id);
+        assertEquals("white", result.whiteUsername());
+        assertEquals(game, result.game());
+    }
+
+    @Test
+    public void endGamePositive() throws DataAccessException {
+        int id = gameDAO.createGame(new GameData(0, "white", "black", "game", new ChessGame()));
+
+        gameDAO.endGame(id);
+
+        assertTrue(gameDAO.getGame(id).game().isGameOver());
+        // a move from a copy loaded before the game ended is refused
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        assertThrows(DataAccessException.class, () -> {
+            ChessGame stale = new ChessGame();
+            stale.makeMove(move);
+            gameDAO.appendMove(id, move, stale);
+        });
+    }
+
+    @Test
+    public void endGameNegative() throws DataAccessException {
+        // no game 9999, so nothing to end
+        gameDAO.endGame(9999);
+        assertNull(gameDAO.getGame(9999));
+    }
+
+    @Test
+    public void appendMovePositive() throws DataAccessException, InvalidMoveException {
+        int id = gameDAO.createGame(new GameData(0, "white", "black", "journal", new ChessGame()));
+
+        // knights out and back, enough moves to pass a snapshot and leave a few to replay
+        ChessMove[] moves = {
+                new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+        };
+        ChessGame game = new ChessGame();
+        int plies = MySQLGameDAO.SNAPSHOT_INTERVAL + 3;
+        for (int ply = 0; ply < plies; ply++) {
+            ChessMove move = moves[ply % moves.length];
+            game.makeMove(move);
+            gameDAO.appendMove(id, move, game);
+        }
+
+        GameData result = gameDAO.getGame(id);
+        assertEquals(game, result.game());
+        assertEquals(plies, result.game().getPlyCount());
+        assertEquals("white", result.whiteUsername());
+        // the snapshot doesn't carry the moves, but the journal still has every one
+        assertEquals(game.getMoveHistory(), gameDAO.getMoves(id));
+    }
+
+    @Test
+    public void getMovesNegative() throws DataAccessException {
+        assertTrue(gameDAO.getMoves(9999).isEmpty());
+    }
+
+    @Test
+    public void appendMoveNegative() {
+        // no game 9999, so the move has nothing to belong to
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        assertThrows(DataAccessException.class, () -> {
+            game.makeMove(move);
+            gameDAO.appendMove(9999, move, game);
+        });
+    }
+
     @Test
     public void clearPositive() throws DataAccessException {
         gameDAO.createGame(new GameData(0, null, null, "game1", new ChessGame()));
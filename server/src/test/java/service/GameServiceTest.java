@@ -88,6 +88,18 @@ public class GameServiceTest {
         assertEquals(2, response.games().size(), "Should have 2 games");
     }
 
+    @Test
+    @DisplayName("List Games Returns Names And Players")
+    public void listGamesReturnsSummaries() throws DataAccessException {
+        authDAO.createAuth(new AuthData("auth1", "User1"));
+        int gameID = gameDAO.createGame(new GameData(0, "User1", null, "Game1", new ChessGame()));
+
+        ListGamesResponse response = gameService.listGames("auth1");
+
+        assertEquals(1, response.games().size());
+        assertEquals(new GameSummary(gameID, "User1", null, "Game1"), response.games().iterator().next());
+    }
+
     @Test
     @DisplayName("List Games Fails With Invalid AuthToken")
     public void listGamesFailsInvalidAuth() throws DataAccessException {
@@ -103,6 +115,20 @@ public class GameServiceTest {
         assertEquals("Error: unauthorized", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Games Refuse A Token Held Under The Bot's Name")
+    public void botNameTokenRejected() throws DataAccessException {
+        // a session left over from an account that took the name before it was reserved
+        authDAO.createAuth(new AuthData("botAuth", GameService.BOT_USERNAME));
+        int gameID = gameDAO.createGame(new GameData(0, null, null, "Game1", new ChessGame()));
+
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> {
+            gameService.joinGame(new JoinGameRequest("WHITE", gameID), "botAuth");
+        });
+        assertEquals("Error: unauthorized", exception.getMessage());
+        assertNull(gameDAO.getGame(gameID).whiteUsername());
+    }
+
     @Test
     @DisplayName("Join Game Successfully As White Player")
     public void joinGameSuccess() throws DataAccessException {
@@ -157,4 +183,65 @@ public class GameServiceTest {
         assertEquals("Error: already taken", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Add Bot Takes The Requested Seat")
+    public void addBotSuccess() throws DataAccessException {
+        // A player sits as WHITE and invites the bot to play BLACK
+        authDAO.createAuth(new AuthData("auth1", "User1"));
+        gameDAO.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+        gameService.joinGame(new JoinGameRequest("WHITE", 1), "auth1");
+
+        gameService.addBot(new JoinGameRequest("BLACK", 1), "auth1");
+
+        GameData updatedGame = gameDAO.getGame(1);
+        assertEquals("User1", updatedGame.whiteUsername(), "White player should be unchanged");
+        assertEquals(GameService.BOT_USERNAME, updatedGame.blackUsername(), "Bot should hold the black seat");
+    }
+
+    @Test
+    @DisplayName("Add Bot Fails When Spot Already Taken")
+    public void addBotFailsSpotTaken() throws DataAccessException {
+        authDAO.createAuth(new AuthData("auth1", "User1"));
+        authDAO.createAuth(new AuthData("auth2", "User2"));
+        gameDAO.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+        gameService.joinGame(new JoinGameRequest("WHITE", 1), "auth1");
+        gameService.joinGame(new JoinGameRequest("BLACK", 1), "auth2");
+
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> {
+            gameService.addBot(new JoinGameRequest("BLACK", 1), "auth1");
+        });
+
+        assertEquals("Error: already taken", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Add Bot Fails For A User Not In The Game")
+    public void addBotFailsOutsider() throws DataAccessException {
+        // User1 isn't seated, so they can't put the bot in either seat
+        authDAO.createAuth(new AuthData("auth1", "User1"));
+        gameDAO.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> {
+            gameService.addBot(new JoinGameRequest("WHITE", 1), "auth1");
+        });
+
+        assertEquals("Error: forbidden", exception.getMessage());
+        assertNull(gameDAO.getGame(1).whiteUsername(), "Seat should still be empty");
+    }
+
+    @Test
+    @DisplayName("Add Bot Fails For The Player's Own Color")
+    public void addBotFailsOwnColor() throws DataAccessException {
+        // sitting as WHITE only lets User1 invite the bot to play BLACK
+        authDAO.createAuth(new AuthData("auth1", "User1"));
+        gameDAO.createGame(new GameData(1, null, null, "Game1", new ChessGame()));
+        gameService.joinGame(new JoinGameRequest("WHITE", 1), "auth1");
+
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> {
+            gameService.addBot(new JoinGameRequest("WHITE", 1), "auth1");
+        });
+
+        assertEquals("Error: forbidden", exception.getMessage());
+    }
+
+}
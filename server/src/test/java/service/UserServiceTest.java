@@ -66,6 +66,17 @@ public class UserServiceTest {
         assertEquals("Error: already taken", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Register Fails For The Bot's Reserved Name")
+    public void registerFailsBotName() {
+        RegisterRequest request = new RegisterRequest(GameService.BOT_USERNAME, "password", "bot@test.com");
+
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> {
+            userService.register(request);
+        });
+        assertEquals("Error: already taken", exception.getMessage());
+    }
+
     @Test
     @DisplayName("Login Existing User Successfully")
     public void loginSuccess() throws DataAccessException {
@@ -111,6 +122,18 @@ public class UserServiceTest {
         assertEquals("Error: unauthorized", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("Login Fails For An Account Under The Bot's Name")
+    public void loginFailsBotName() throws DataAccessException {
+        // an account that took the name before it was reserved
+        userDAO.createUser(new UserData(GameService.BOT_USERNAME, "password", "bot@test.com"));
+
+        DataAccessException exception = assertThrows(DataAccessException.class, () -> {
+            userService.login(new LoginRequest(GameService.BOT_USERNAME, "password"));
+        });
+        assertEquals("Error: unauthorized", exception.getMessage());
+    }
+
     @Test
     @DisplayName("Logout Successfully Removes AuthToken")
     public void logoutSuccess() throws DataAccessException {
@@ -0,0 +1,191 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A 64-bit bitboard view of a chessboard. Each piece type and color gets its own
+ * long where bit N is set if that piece sits on square N, plus occupancy masks for
+ * each color and for the whole board.
+ * <p>
+ * Squares are numbered 0-63 starting at row 1, column 1 (a1) and counting along
+ * the row, so square = (row - 1) * 8 + (column - 1).
+ * <p>
+ * The Zobrist key of the piece placement is kept up to date as pieces are set
+ * and cleared.
+ */
+public final class Bitboard {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+    private static final int KING = 0; // PieceType.KING.ordinal()
+
+    // indexed by color * 6 + PieceType.ordinal()
+    private final long[] pieces = new long[12];
+    private final long[] colors = new long[2];
+    private long occupied;
+    // square of each color's king, or -1 if it has none
+    private final int[] kingSquares = {-1, -1};
+    private long key;
+
+    public Bitboard() {
+
+    }
+
+    /**
+     * Builds a bitboard from the mailbox array ChessBoard keeps
+     */
+    static Bitboard fromSquares(ChessPiece[][] squares) {
+        Bitboard bitboard = new Bitboard();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = squares[row][col];
+                if (piece != null) {
+                    bitboard.set(row * 8 + col, colorIndex(piece.getTeamColor()), piece.getPieceType().ordinal());
+                }
+            }
+        }
+        return bitboard;
+    }
+
+    /**
+     * Puts a piece on an empty square
+     */
+    public void set(int square, int color, int type) {
+        long bit = 1L << square;
+        pieces[color * 6 + type] |= bit;
+        colors[color] |= bit;
+        occupied |= bit;
+        key ^= Zobrist.piece(color * 6 + type, square);
+        if (type == KING) {
+            kingSquares[color] = square;
+        }
+    }
+
+    /**
+     * Removes a piece that is known to be on the square
+     */
+    public void clear(int square, int color, int type) {
+        long bit = ~(1L << square);
+        pieces[color * 6 + type] &= bit;
+        colors[color] &= bit;
+        occupied &= bit;
+        key ^= Zobrist.piece(color * 6 + type, square);
+        if (type == KING && kingSquares[color] == square) {
+            // fall back to any other king of that color (test boards can have more than one)
+            long kings = pieces[color * 6 + KING];
+            kingSquares[color] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(pieces, 0L);
+        colors[WHITE] = 0L;
+        colors[BLACK] = 0L;
+        occupied = 0L;
+        key = 0L;
+        kingSquares[WHITE] = -1;
+        kingSquares[BLACK] = -1;
+    }
+
+    /**
+     * @return every square holding the given color and piece type
+     */
+    public long pieces(int color, int type) {
+        return pieces[color * 6 + type];
+    }
+
+    public long pieces(int color, ChessPiece.PieceType type) {
+        return pieces[color * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return every square holding a piece of the given color
+     */
+    public long color(int color) {
+        return colors[color];
+    }
+
+    /**
+     * @return every occupied square
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * @return the Zobrist key of the piece placement
+     */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * @return the square of the color's king, or -1 if it has no king
+     */
+    public int kingSquare(int color) {
+        return kingSquares[color];
+    }
+
+    /**
+     * @return the color index of the piece on the square, or -1 if it is empty
+     */
+    public int colorAt(int square) {
+        long bit = 1L << square;
+        if ((colors[WHITE] & bit) != 0) {
+            return WHITE;
+        }
+        if ((colors[BLACK] & bit) != 0) {
+            return BLACK;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the PieceType ordinal of the piece on the square, or -1 if it is empty
+     */
+    public int typeAt(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
+            return -1;
+        }
+        for (int i = 0; i < 12; i++) {
+            if ((pieces[i] & bit) != 0) {
+                return i % 6;
+            }
+        }
+        return -1;
+    }
+
+    public void copyFrom(Bitboard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, 12);
+        colors[WHITE] = other.colors[WHITE];
+        colors[BLACK] = other.colors[BLACK];
+        occupied = other.occupied;
+        key = other.key;
+        kingSquares[WHITE] = other.kingSquares[WHITE];
+        kingSquares[BLACK] = other.kingSquares[BLACK];
+    }
+
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static int colorIndex(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    public static ChessGame.TeamColor teamColor(int color) {
+        return color == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+}
@@ -1,5 +1,7 @@
 package chess;
 
+import chess.pieces.AttackTables;
+
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -10,7 +12,39 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessBoard {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+
+    // castling rights that survive a move from or to each square, so moving a
+    // king or rook (or capturing a rook) gives up the castling that needed it
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_MASK[4] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[7] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_MASK[56] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+        CASTLING_MASK[60] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[63] = ALL_CASTLING & ~BLACK_KINGSIDE;
+    }
+
     ChessPiece[][] squares = new ChessPiece[8][8];
+    // castling not yet given up, as the bits above. Using a right also needs the
+    // king and rook on their home squares, so a new board can start with all of them.
+    private int castlingRights = ALL_CASTLING;
+    // square a pawn skipped over with a double move on the last move, or -1
+    private int enPassantSquare = -1;
+    // bitboard mirror of squares, rebuilt lazily (it is not serialized)
+    private transient Bitboard bitboard;
+
     public ChessBoard() {
         
     }
@@ -22,7 +56,22 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        setSquare(Bitboard.square(position), piece);
+    }
+
+    private void setSquare(int square, ChessPiece piece) {
+        ChessPiece oldPiece = squares[square >>> 3][square & 7];
+        squares[square >>> 3][square & 7] = piece;
+
+        // keep the bitboards in sync if they have been built
+        if (bitboard != null) {
+            if (oldPiece != null) {
+                bitboard.clear(square, Bitboard.colorIndex(oldPiece.getTeamColor()), oldPiece.getPieceType().ordinal());
+            }
+            if (piece != null) {
+                bitboard.set(square, Bitboard.colorIndex(piece.getTeamColor()), piece.getPieceType().ordinal());
+            }
+        }
     }
 
     /**
@@ -36,6 +85,111 @@ public class ChessBoard {
         return squares[position.getRow()-1][position.getColumn()-1];
     }
 
+    /**
+     * Gets where a team's king is. The square is tracked as pieces are added and
+     * moved, so this does not search the board.
+     *
+     * @param teamColor the team whose king to find
+     * @return the king's position, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor teamColor) {
+        int square = getBitboard().kingSquare(Bitboard.colorIndex(teamColor));
+        if (square < 0) {
+            return null;
+        }
+        return ChessPosition.of(square);
+    }
+
+    /**
+     * Gets the 64-bit Zobrist hash of where the pieces are. It is updated
+     * incrementally on every addPiece and move, so reading it is free.
+     *
+     * @return the placement hash
+     */
+    public long getZobristKey() {
+        return getBitboard().key();
+    }
+
+    /**
+     * Gets the Zobrist hash of the whole board state: the placement key plus the
+     * castling rights that can still be used and the en passant column when a
+     * pawn is in place to take it. Rights and en passant squares that can never
+     * be used are left out, so positions with the same possible moves hash the same.
+     *
+     * @return the board state hash
+     */
+    public long getPositionKey() {
+        long key = getZobristKey() ^ Zobrist.castling(usableCastlingRights());
+        if (enPassantSquare >= 0 && enPassantCapturers() != 0) {
+            key ^= Zobrist.enPassant(Bitboard.column(enPassantSquare));
+        }
+        return key;
+    }
+
+    /**
+     * @return the castling rights bits that have not been given up
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & ALL_CASTLING;
+    }
+
+    /**
+     * @return the square (see Bitboard) a pawn skipped with a double move on the
+     * last move, or -1 if the last move was not one
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /*
+     * Castling rights whose king and rook are still on their home squares
+     */
+    int usableCastlingRights() {
+        int rights = castlingRights;
+        if (rights == 0) {
+            return 0;
+        }
+        Bitboard bitboard = getBitboard();
+        long whiteRooks = bitboard.pieces(Bitboard.WHITE, ROOK);
+        long blackRooks = bitboard.pieces(Bitboard.BLACK, ROOK);
+        if ((bitboard.pieces(Bitboard.WHITE, KING) & (1L << 4)) == 0) {
+            rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if ((whiteRooks & (1L << 7)) == 0) {
+            rights &= ~WHITE_KINGSIDE;
+        }
+        if ((whiteRooks & 1L) == 0) {
+            rights &= ~WHITE_QUEENSIDE;
+        }
+        if ((bitboard.pieces(Bitboard.BLACK, KING) & (1L << 60)) == 0) {
+            rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if ((blackRooks & (1L << 63)) == 0) {
+            rights &= ~BLACK_KINGSIDE;
+        }
+        if ((blackRooks & (1L << 56)) == 0) {
+            rights &= ~BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    /*
+     * Pawns standing where they could capture onto the en passant square
+     */
+    long enPassantCapturers() {
+        // the square is on row 3 after a white double move and row 6 after a black one
+        int pusher = enPassantSquare < 32 ? Bitboard.WHITE : Bitboard.BLACK;
+        return AttackTables.pawnAttacks(pusher, enPassantSquare) & getBitboard().pieces(1 - pusher, PAWN);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -43,6 +197,11 @@ public class ChessBoard {
     public void resetBoard() {
         // Clear the board first
         squares = new ChessPiece[8][8];
+        if (bitboard != null) {
+            bitboard.reset();
+        }
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
 
         // Add White pieces (row 1)
         addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
@@ -72,21 +231,173 @@ public class ChessBoard {
         addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
     }
 
-    public ChessBoard clone() {
-        ChessBoard newBoard = new ChessBoard();
+    /**
+     * Gets the bitboard representation of this board, building it from the
+     * squares array the first time it is needed
+     *
+     * @return the bitboards for this board
+     */
+    public Bitboard getBitboard() {
+        if (bitboard == null) {
+            bitboard = Bitboard.fromSquares(squares);
+        }
+        return bitboard;
+    }
+
+    /**
+     * Makes a move in place without checking that it is legal. The returned undo
+     * record can be passed to unmakeMove to restore the board exactly. Castling,
+     * en passant and double pawn moves are recognized from the pieces involved.
+     *
+     * @param move the move to make
+     * @return the undo record for the move
+     */
+    public MoveUndo makeMove(ChessMove move) {
+        int packed = ChessMove.encode(move);
+        packed |= moveFlags(packed);
+        ChessPiece movingPiece = getPiece(move.getStartPosition());
+        int undo = makeMove(packed);
+        return new MoveUndo(move, movingPiece, pieceFromCode(undo & 0xF), packed, undo);
+    }
+
+    /**
+     * Takes back a move made with makeMove. Moves must be unmade in the reverse
+     * order they were made.
+     *
+     * @param undo the record returned by makeMove
+     */
+    public void unmakeMove(MoveUndo undo) {
+        unmakeMove(undo.packedMove, undo.packedUndo);
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = this.getPiece(position);
+    /*
+     * The flags the move generator would have put on a packed move that has none
+     */
+    int moveFlags(int move) {
+        int from = ChessMove.from(move);
+        int to = ChessMove.to(move);
+        ChessPiece piece = squares[from >>> 3][from & 7];
+        boolean targetEmpty = squares[to >>> 3][to & 7] == null;
+        int flags = targetEmpty ? 0 : ChessMove.FLAG_CAPTURE;
+        if (piece == null) {
+            return flags;
+        }
 
-                if (piece != null) {
-                    // Create a NEW piece with the same color and type
-                    ChessPiece newPiece = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-                    newBoard.addPiece(position, newPiece);
-                }
+        int columns = Math.abs((to & 7) - (from & 7));
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && columns == 2) {
+            flags |= ChessMove.FLAG_CASTLE;
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (columns == 1 && targetEmpty) {
+                flags |= ChessMove.FLAG_EN_PASSANT | ChessMove.FLAG_CAPTURE;
+            } else if (Math.abs(to - from) == 16) {
+                flags |= ChessMove.FLAG_DOUBLE_PUSH;
             }
         }
+        return flags;
+    }
+
+    /**
+     * Makes a packed move (see ChessMove) in place without checking that it is
+     * legal. This is the allocation-free path the engine uses.
+     *
+     * @param move the packed move
+     * @return packed undo information to hand back to unmakeMove
+     */
+    public int makeMove(int move) {
+        int from = ChessMove.from(move);
+        int to = ChessMove.to(move);
+        // an en passant capture takes the pawn beside the end square
+        int capturedSquare = (move & ChessMove.FLAG_EN_PASSANT) != 0 ? (from & ~7) | (to & 7) : to;
+        ChessPiece movingPiece = squares[from >>> 3][from & 7];
+        ChessPiece capturedPiece = squares[capturedSquare >>> 3][capturedSquare & 7];
+
+        // captured piece code, castling rights and en passant square + 1
+        int undo = pieceCode(capturedPiece) | (castlingRights << 4) | ((enPassantSquare + 1) << 8);
+
+        if (capturedSquare != to) {
+            setSquare(capturedSquare, null);
+        }
+        setSquare(from, null);
+        ChessPiece.PieceType promotion = ChessMove.promotion(move);
+        if (promotion != null) {
+            setSquare(to, ChessPiece.of(movingPiece.getTeamColor(), promotion));
+        } else {
+            setSquare(to, movingPiece);
+        }
+        if ((move & ChessMove.FLAG_CASTLE) != 0) {
+            // the rook lands on the square the king passed over
+            moveRook(to > from ? to + 1 : to - 2, (from + to) >>> 1);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = (move & ChessMove.FLAG_DOUBLE_PUSH) != 0 ? (from + to) >>> 1 : -1;
+        return undo;
+    }
+
+    /**
+     * Takes back a packed move made with makeMove(int)
+     *
+     * @param move the packed move
+     * @param undo the value makeMove returned for it
+     */
+    public void unmakeMove(int move, int undo) {
+        int from = ChessMove.from(move);
+        int to = ChessMove.to(move);
+        ChessPiece movedPiece = squares[to >>> 3][to & 7];
+        if (ChessMove.promotion(move) != null) {
+            movedPiece = ChessPiece.of(movedPiece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+
+        setSquare(from, movedPiece);
+        ChessPiece capturedPiece = pieceFromCode(undo & 0xF);
+        if ((move & ChessMove.FLAG_EN_PASSANT) != 0) {
+            setSquare(to, null);
+            setSquare((from & ~7) | (to & 7), capturedPiece);
+        } else {
+            setSquare(to, capturedPiece);
+        }
+        if ((move & ChessMove.FLAG_CASTLE) != 0) {
+            moveRook((from + to) >>> 1, to > from ? to + 1 : to - 2);
+        }
+
+        castlingRights = (undo >>> 4) & ALL_CASTLING;
+        enPassantSquare = ((undo >>> 8) & 0x7F) - 1;
+    }
+
+    private void moveRook(int from, int to) {
+        ChessPiece rook = squares[from >>> 3][from & 7];
+        setSquare(from, null);
+        setSquare(to, rook);
+    }
+
+    // 0 for no piece, otherwise color * 6 + type + 1
+    private static int pieceCode(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        return piece.getTeamColor().ordinal() * 6 + piece.getPieceType().ordinal() + 1;
+    }
+
+    private static ChessPiece pieceFromCode(int code) {
+        if (code == 0) {
+            return null;
+        }
+        return ChessPiece.fromIndex(code - 1);
+    }
+
+    public ChessBoard clone() {
+        ChessBoard newBoard = new ChessBoard();
+
+        // pieces are immutable so the rows can share them
+        for (int row = 0; row < 8; row++) {
+            System.arraycopy(squares[row], 0, newBoard.squares[row], 0, 8);
+        }
+        if (bitboard != null) {
+            newBoard.bitboard = new Bitboard();
+            newBoard.bitboard.copyFrom(bitboard);
+        }
+        newBoard.castlingRights = castlingRights;
+        newBoard.enPassantSquare = enPassantSquare;
 
         return newBoard;
     }
@@ -101,6 +412,7 @@ public class ChessBoard {
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        long key = getZobristKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
@@ -1,7 +1,9 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,6 +16,26 @@ public class ChessGame {
     private ChessBoard board;
     private TeamColor currentTurn;
     private boolean gameOver = false; // Add this
+    private static final long[] NO_POSITIONS = new long[0];
+
+    // every move played on this object, packed as in ChessMove, and the position
+    // hash from just before each one so repetitions can be found by hash.
+    // None of the history goes into JSON, so LOAD_GAME messages stay the size of the
+    // board; GameCodec and the move journal are what store it.
+    private transient int[] moveHistory = new int[16];
+    private transient long[] positionHistory = new long[16];
+    private transient int historySize;
+    // for a game loaded by GameCodec: the plies played before it was saved, and the
+    // hashes from the last of them that a repetition could still match
+    private transient int historyStart;
+    private transient long[] priorPositions = NO_POSITIONS;
+    // half moves since the last capture or pawn move
+    private transient int halfmoveClock;
+    // starts at 1 and goes up after each black move
+    private transient int fullmoveNumber = 1;
+    // status of the position it was computed for, rebuilt whenever the position hash moves on
+    private transient GameStatus status;
+    private transient long statusHash;
 
 
     public ChessGame() {
@@ -60,82 +82,8 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> allMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> legalMoves = new ArrayList<>();
-
-        for (ChessMove move : allMoves) {
-            ChessBoard clonedBoard = board.clone();
-
-            ChessPiece movingPiece = clonedBoard.getPiece(move.getStartPosition());
-            clonedBoard.addPiece(move.getStartPosition(), null);
-
-            //gets piece and moves it to new spot
-            //pawn promotion
-            if (move.getPromotionPiece() != null) {
-                ChessPiece promotedPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece());
-                clonedBoard.addPiece(move.getEndPosition(), promotedPiece);
-            } else {
-                clonedBoard.addPiece(move.getEndPosition(), movingPiece);
-            }
-            if (!isInCheckOnBoard(piece.getTeamColor(), clonedBoard)) {
-                legalMoves.add(move);
-            }
-
-
-        }
-        return legalMoves;
-    }
-    private ChessPosition findKing(TeamColor teamColor, ChessBoard boardToCheck) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = boardToCheck.getPiece(position);
-
-                if (piece != null &&
-                        piece.getTeamColor() == teamColor &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return position;
-                }
-            }
-        }
-        return null;  // King not found (shouldn't happen in valid game)
-    }
-    private boolean isInCheckOnBoard(TeamColor teamColor, ChessBoard boardToCheck) {
-        ChessPosition kingPosition = findKing(teamColor, boardToCheck);
-
-        // Check if any enemy piece can attack the king
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece currPiece = boardToCheck.getPiece(position);
-
-                // Skip if not an enemy piece
-                if (currPiece == null || currPiece.getTeamColor() == teamColor) {
-                    continue;
-                }
-
-                // Check if this enemy piece can attack the king
-                if (canAttackKing(currPiece, position, kingPosition, boardToCheck)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;  // No enemy can reach the king
-    }
-
-    // Helper method to check if a piece can attack the king
-    private boolean canAttackKing(ChessPiece enemyPiece, ChessPosition enemyPosition,
-                                  ChessPosition kingPosition, ChessBoard boardToCheck) {
-        Collection<ChessMove> enemyMoves = enemyPiece.pieceMoves(boardToCheck, enemyPosition);
-
-        for (ChessMove move : enemyMoves) {
-            if (move.getEndPosition().equals(kingPosition)) {
-                return true;
-            }
-        }
-
-        return false;
+        // the generator only produces moves that keep the king safe
+        return new MoveGenerator(board, piece.getTeamColor()).legalMovesFrom(startPosition);
     }
     public boolean isGameOver() {
         return gameOver;
@@ -165,28 +113,214 @@ public class ChessGame {
             throw new InvalidMoveException("Not your turn");
         }
 
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
+        // compare packed moves instead of building and searching ChessMove objects
+        MoveList legalMoves = new MoveList(32);
+        new MoveGenerator(board, currentTurn).generateFrom(move.getStartPosition(), legalMoves);
+        int legalMove = isOnBoard(move.getEndPosition()) ? legalMoves.find(ChessMove.encode(move)) : -1;
 
-        if (!legalMoves.contains(move)) {
+        if (legalMove == -1) {
             throw new InvalidMoveException("Invalid move");
         }
-        //remove from start position
-        board.addPiece(move.getStartPosition(), null);
-        //pawn promotion
-        if (move.getPromotionPiece() != null) {
-            ChessPiece promotedPiece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-            board.addPiece(move.getEndPosition(), promotedPiece);
-        } else {
-            // Normal move - add the piece to end position
-            board.addPiece(move.getEndPosition(), piece);
+        playMove(legalMove, piece);
+        updateStatus();
+    }
+
+    /*
+     * Plays moves that were legal when they were first made, such as ones read back
+     * from storage. Each move skips the move generation makeMove does, and the
+     * status is worked out once at the end instead of after every move.
+     */
+    void replayMoves(int[] moves) {
+        if (moves.length == 0) {
+            return;
+        }
+        for (int i = 0; i < moves.length; i++) {
+            int move = moves[i] & ChessMove.MOVE_MASK;
+            int from = ChessMove.from(move);
+            ChessPiece piece = board.squares[from >>> 3][from & 7];
+            if (piece == null || piece.getTeamColor() != currentTurn) {
+                throw new IllegalArgumentException("Move " + (getPlyCount() + 1) + " has no piece of the team to move");
+            }
+            playMove(move | board.moveFlags(move), piece);
+        }
+        updateStatus();
+    }
+
+    // records a flagged move, updates the clocks and passes the turn, without touching the status
+    private void playMove(int move, ChessPiece piece) {
+        boolean resetsClock = (move & ChessMove.FLAG_CAPTURE) != 0
+                || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        recordMove(move);
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
+
+        board.makeMove(move);
         if(currentTurn == TeamColor.WHITE) {
             currentTurn = TeamColor.BLACK;
         } else {
             currentTurn = TeamColor.WHITE;
         }
+    }
+
+    /**
+     * Gets the check, checkmate, stalemate and mobility state of the team to move.
+     * It is worked out once after each move and reused until the position changes.
+     *
+     * @return the status of the current position
+     */
+    public GameStatus getStatus() {
+        GameStatus cached = cachedStatus(currentTurn);
+        return cached != null ? cached : updateStatus();
+    }
 
+    private GameStatus updateStatus() {
+        status = GameStatus.of(board, currentTurn);
+        statusHash = getPositionHash();
+        return status;
+    }
 
+    /*
+     * The cached status, if it was computed for this team in the current position.
+     * The board can be edited through getBoard(), so the position hash is what
+     * tells a fresh status from a stale one.
+     */
+    private GameStatus cachedStatus(TeamColor teamColor) {
+        GameStatus cached = status;
+        if (cached == null || cached.sideToMove() != teamColor || statusHash != getPositionHash()) {
+            return null;
+        }
+        return cached;
+    }
+
+    private void recordMove(int move) {
+        if (historySize == moveHistory.length) {
+            int capacity = Math.max(16, historySize * 2);
+            moveHistory = Arrays.copyOf(moveHistory, capacity);
+            positionHistory = Arrays.copyOf(positionHistory, capacity);
+        }
+        moveHistory[historySize] = move;
+        positionHistory[historySize] = getPositionHash();
+        historySize++;
+    }
+
+    /**
+     * @return every move made on this game since the board was set up, oldest first.
+     * A game read back by GameCodec only has the moves made after it was saved; the
+     * server's move journal holds the rest.
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> moves = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            moves.add(ChessMove.decode(moveHistory[i]));
+        }
+        return moves;
+    }
+
+    /**
+     * @return the number of half moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    // used when loading a position that did not start from move one
+    void setClocks(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * @return the number of half moves made since the board was set up, including
+     * any made before the game was saved and read back
+     */
+    public int getPlyCount() {
+        return historyStart + historySize;
+    }
+
+    /**
+     * @param ply a half move since the last capture or pawn move, counting from 0
+     *            like getPlyCount
+     * @return the position hash (see getPositionHash) from just before that move.
+     * Only those moves are guaranteed to be known, since no earlier position can
+     * come back.
+     */
+    public long positionBefore(int ply) {
+        int index = ply - historyStart;
+        return index >= 0 ? positionHistory[index] : priorPositions[priorPositions.length + index];
+    }
+
+    // used when loading a saved game, so repetition checks still see its earlier positions
+    void setPriorPositions(int plies, long[] positions) {
+        historyStart = plies;
+        priorPositions = positions;
+        historySize = 0;
+    }
+
+    /**
+     * Sets up a game from a FEN record
+     *
+     * @param fen the FEN record, optionally without the halfmove and fullmove fields
+     * @return a new game at that position
+     * @throws IllegalArgumentException if the record is not valid FEN
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the FEN record for the current position
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Determines if the current position has now come up three times. Only the
+     * hashes since the last capture or pawn move are scanned, since no position
+     * before one of those can ever come back.
+     *
+     * @return True if this position has been reached three times
+     */
+    public boolean isThreefoldRepetition() {
+        long hash = getPositionHash();
+        int plies = getPlyCount();
+        int oldest = Math.max(historyStart - priorPositions.length, plies - halfmoveClock);
+        int seen = 1;
+        // positions with the same team to move are two half moves apart
+        for (int ply = plies - 2; ply >= oldest; ply -= 2) {
+            if (positionBefore(ply) == hash && ++seen == 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return True if fifty moves by each team have passed without a capture or pawn move
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= 100;
+    }
+
+    /**
+     * @return True if the game is drawn by threefold repetition or the fifty move rule
+     */
+    public boolean isDraw() {
+        return isThreefoldRepetition() || isFiftyMoveRule();
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
     }
 
     /**
@@ -196,7 +330,16 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        return isInCheckOnBoard(teamColor, this.board);
+        GameStatus cached = cachedStatus(teamColor);
+        if (cached != null) {
+            return cached.inCheck();
+        }
+        ChessPosition kingPosition = board.getKingPosition(teamColor);
+        if (kingPosition == null) {
+            return false;  // no king on the board, so it can't be in check
+        }
+        TeamColor enemy = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return MoveGenerator.isSquareAttacked(board, kingPosition, enemy);
     }
 
     /**
@@ -205,24 +348,14 @@ public class ChessGame {
      * @param teamColor which team to check for checkmate
      * @return True if the specified team is in checkmate
      */
-    private boolean hasAnyValidMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
     public boolean isInCheckmate(TeamColor teamColor) {
-        return isInCheck(teamColor) && !hasAnyValidMoves(teamColor);
+        GameStatus cached = cachedStatus(teamColor);
+        if (cached != null) {
+            return cached.checkmate();
+        }
+        // checkers, pins and mobility all come from one pass over the position
+        MoveGenerator generator = new MoveGenerator(board, teamColor);
+        return generator.isInCheck() && !generator.hasLegalMove();
     }
 
     /**
@@ -233,7 +366,12 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        return !isInCheck(teamColor) && !hasAnyValidMoves(teamColor);
+        GameStatus cached = cachedStatus(teamColor);
+        if (cached != null) {
+            return cached.stalemate();
+        }
+        MoveGenerator generator = new MoveGenerator(board, teamColor);
+        return !generator.isInCheck() && !generator.hasLegalMove();
     }
 
     /**
@@ -243,6 +381,12 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // the old moves and positions say nothing about the new board
+        historySize = 0;
+        historyStart = 0;
+        priorPositions = NO_POSITIONS;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
     }
 
     /**
@@ -254,6 +398,18 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Gets the 64-bit Zobrist hash of this position: the board's state key
+     * (placement, castling and en passant) combined with whose turn it is. Equal
+     * positions always hash the same, so
+     * it can key transposition tables, repetition checks and position caches.
+     *
+     * @return the position hash
+     */
+    public long getPositionHash() {
+        return board.getPositionKey() ^ Zobrist.sideToMove(currentTurn);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -265,6 +421,8 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurn);
+        // equals ignores castling and en passant, so the hash has to as well
+        long hash = board.getZobristKey() ^ Zobrist.sideToMove(currentTurn);
+        return (int) (hash ^ (hash >>> 32));
     }
 }
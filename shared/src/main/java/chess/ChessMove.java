@@ -9,6 +9,25 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
+    /*
+     * Moves can also be packed into an int for the engine:
+     *   bits 0-5   start square (see Bitboard)
+     *   bits 6-11  end square
+     *   bits 12-14 promotion PieceType ordinal + 1, or 0 for none
+     *   bits 16+   flags describing the move on the board it was generated for
+     * The low 16 bits identify the move on their own, so they are all that is
+     * needed to compare, hash or store one.
+     */
+    public static final int MOVE_MASK = 0xFFFF;
+    public static final int FLAG_CAPTURE = 1 << 16;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 17;
+    // the captured pawn is beside the end square rather than on it
+    public static final int FLAG_EN_PASSANT = 1 << 18;
+    // a king moving two squares, which also moves the rook it castles with
+    public static final int FLAG_CASTLE = 1 << 19;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -44,6 +63,71 @@ public class ChessMove {
         return  promotionPiece;
     }
 
+    /**
+     * Packs a move into an int with no flags
+     *
+     * @param from      start square index
+     * @param to        end square index
+     * @param promotion promotion piece, or null
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion) {
+        return from | (to << 6) | ((promotion == null ? 0 : promotion.ordinal() + 1) << 12);
+    }
+
+    /**
+     * Packs a move into an int with no flags
+     *
+     * @param move the move to pack, which must start and end on the board
+     * @return the packed move
+     */
+    public static int encode(ChessMove move) {
+        return encode(Bitboard.square(move.startPosition), Bitboard.square(move.endPosition), move.promotionPiece);
+    }
+
+    /**
+     * Unpacks a move, dropping any flags
+     *
+     * @param move the packed move
+     * @return a ChessMove using the shared ChessPosition instances
+     */
+    public static ChessMove decode(int move) {
+        return new ChessMove(ChessPosition.of(from(move)), ChessPosition.of(to(move)), promotion(move));
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the promotion piece of a packed move, or null if it is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 0x7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & FLAG_CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & FLAG_CASTLE) != 0;
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
     @Override
     public String toString() {
         return String.format("%s%s", startPosition, endPosition);
@@ -62,6 +146,10 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
+        // the packed form is unique per move, so it makes a perfect hash
+        if (isOnBoard(startPosition) && isOnBoard(endPosition)) {
+            return encode(this);
+        }
         return Objects.hash(startPosition, endPosition, promotionPiece);
     }
 }
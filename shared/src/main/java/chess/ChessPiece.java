@@ -18,6 +18,17 @@ public class ChessPiece {
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type
             ;
+    // one shared instance per color and type, indexed by color * 6 + type
+    private static final ChessPiece[] CANONICAL = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType pieceType : PieceType.values()) {
+                CANONICAL[color.ordinal() * 6 + pieceType.ordinal()] = new ChessPiece(color, pieceType);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
@@ -35,6 +46,21 @@ public class ChessPiece {
         PAWN
     }
 
+    /**
+     * Gets the shared piece for a color and type. Pieces are immutable, so boards
+     * can use these instead of allocating a new piece every time one moves.
+     *
+     * @return the canonical piece for the color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return CANONICAL[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
+    // the canonical piece for color.ordinal() * 6 + type.ordinal()
+    static ChessPiece fromIndex(int index) {
+        return CANONICAL[index];
+    }
+
     /**
      * @return Which team this chess piece belongs to
      */
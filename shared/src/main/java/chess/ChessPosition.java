@@ -12,11 +12,41 @@ public class ChessPosition {
     private final int row;
     private final int column;
 
+    // the 64 on-board positions, indexed by (row - 1) * 8 + (col - 1)
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
     public ChessPosition(int row, int col) {
        this.row = row;
        this.column = col;
     }
 
+    /**
+     * Gets the shared position for a square. Positions are immutable, so move
+     * generation hands these out instead of allocating new ones.
+     *
+     * @return the canonical position, or a new one if the square is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @param square square index from 0 (row 1, column 1) to 63 (row 8, column 8)
+     * @return the canonical position for the square
+     */
+    public static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
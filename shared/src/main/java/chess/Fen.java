@@ -0,0 +1,227 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g. the start position
+ * <pre>rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1</pre>
+ * The parser walks the CharSequence with an index instead of splitting it, so
+ * nothing but the game itself is allocated. The halfmove and fullmove fields
+ * may be left off, as they often are in test suites.
+ */
+public final class Fen {
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // piece letters indexed by PieceType ordinal
+    private static final String PIECE_LETTERS = "kqbnrp";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Fen() {
+
+    }
+
+    /**
+     * @param fen a FEN record
+     * @return a new game set up at that position
+     * @throws IllegalArgumentException if the record is not valid FEN
+     */
+    public static ChessGame parse(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        int i = skipSpaces(fen, 0);
+
+        // placement, row 8 first
+        int row = 8;
+        int col = 1;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw invalid(fen, i, "row " + row + " does not have 8 squares");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int type = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                if (type < 0) {
+                    throw invalid(fen, i, "unknown piece '" + c + "'");
+                }
+                if (col > 8) {
+                    throw invalid(fen, i, "row " + row + " has more than 8 squares");
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE
+                        : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, TYPES[type]));
+                col++;
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw invalid(fen, i, "the board does not have 8 full rows");
+        }
+
+        // side to move
+        i = skipSpaces(fen, i);
+        ChessGame.TeamColor turn;
+        if (i < fen.length() && fen.charAt(i) == 'w') {
+            turn = ChessGame.TeamColor.WHITE;
+        } else if (i < fen.length() && fen.charAt(i) == 'b') {
+            turn = ChessGame.TeamColor.BLACK;
+        } else {
+            throw invalid(fen, i, "expected 'w' or 'b'");
+        }
+        i = endOfField(fen, i + 1);
+
+        // castling rights
+        i = skipSpaces(fen, i);
+        int rights = 0;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                rights |= switch (fen.charAt(i)) {
+                    case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                    case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                    case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                    case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                    default -> throw invalid(fen, i, "unknown castling right '" + fen.charAt(i) + "'");
+                };
+            }
+        }
+        board.setCastlingRights(rights);
+
+        // en passant square
+        i = skipSpaces(fen, i);
+        int enPassant = -1;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else if (i + 1 < fen.length()) {
+            int file = fen.charAt(i) - 'a' + 1;
+            int rank = fen.charAt(i + 1) - '0';
+            if (file < 1 || file > 8 || (rank != 3 && rank != 6)) {
+                throw invalid(fen, i, "bad en passant square");
+            }
+            enPassant = Bitboard.square(rank, file);
+            i += 2;
+        } else {
+            throw invalid(fen, i, "missing en passant square");
+        }
+        board.setEnPassantSquare(enPassant);
+        i = endOfField(fen, i);
+
+        // optional clocks
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpaces(fen, i);
+        if (i < fen.length()) {
+            int end = endOfField(fen, i);
+            halfmoveClock = parseNumber(fen, i, end);
+            i = skipSpaces(fen, end);
+            if (i < fen.length()) {
+                end = endOfField(fen, i);
+                fullmoveNumber = Math.max(1, parseNumber(fen, i, end));
+                i = skipSpaces(fen, end);
+            }
+        }
+        if (i < fen.length()) {
+            throw invalid(fen, i, "unexpected text after the last field");
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setClocks(halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    /**
+     * @param game the game to describe
+     * @return the FEN record for the game's current position
+     */
+    public static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.squares[row - 1][col - 1];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter);
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        // only rights whose king and rook are still at home mean anything
+        int rights = board.usableCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            if ((rights & ChessBoard.WHITE_KINGSIDE) != 0) {
+                fen.append('K');
+            }
+            if ((rights & ChessBoard.WHITE_QUEENSIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((rights & ChessBoard.BLACK_KINGSIDE) != 0) {
+                fen.append('k');
+            }
+            if ((rights & ChessBoard.BLACK_QUEENSIDE) != 0) {
+                fen.append('q');
+            }
+        }
+
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + Bitboard.column(enPassant) - 1)).append(Bitboard.row(enPassant));
+        }
+
+        fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    private static int skipSpaces(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int endOfField(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseNumber(CharSequence fen, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9' || value > 100_000) {
+                throw invalid(fen, i, "expected a number");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, int index, String reason) {
+        return new IllegalArgumentException("Invalid FEN at character " + index + ": " + reason + " in \"" + fen + "\"");
+    }
+}
@@ -0,0 +1,158 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a ChessGame into a few dozen bytes for storage, instead of the kilobyte
+ * or so of JSON Gson writes for the board's 8x8 array of pieces.
+ * <p>
+ * Version 2 layout, big-endian:
+ * <pre>
+ *   0      version (2)
+ *   1      flags: bit 0 black to move, bit 1 game over
+ *   2      castling rights (ChessBoard bits)
+ *   3      en passant square + 1, or 0 for none
+ *   4-5    halfmove clock
+ *   6-7    fullmove number
+ *   8-39   one nibble per square, square 0 in the low half of byte 8:
+ *          0 for empty, otherwise color * 6 + PieceType ordinal + 1
+ *   40-41  number of moves played
+ *   ...    the position hash before each of the last min(moves, halfmove clock) moves
+ * </pre>
+ * The moves themselves are not kept; the server's move journal has them. Only
+ * the hashes since the last capture or pawn move are, because those are the
+ * only ones a repetition check can match, so a game never packs to more than
+ * the 42 byte header plus one hash for each of those moves.
+ * <p>
+ * Version 1 also stored every move, and is still read, dropping them.
+ */
+public final class GameCodec {
+    public static final int VERSION = 2;
+
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_GAME_OVER = 2;
+    private static final int HEADER_BYTES = 42;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private GameCodec() {
+
+    }
+
+    /**
+     * @param game the game to pack
+     * @return the game's position, clocks and history
+     */
+    public static byte[] encode(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int moves = game.getPlyCount();
+        int positions = Math.min(moves, game.getHalfmoveClock());
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + positions * 8);
+
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? FLAG_BLACK_TO_MOVE : 0)
+                | (game.isGameOver() ? FLAG_GAME_OVER : 0);
+        out.put((byte) VERSION);
+        out.put((byte) flags);
+        out.put((byte) board.getCastlingRights());
+        out.put((byte) (board.getEnPassantSquare() + 1));
+        out.putShort((short) game.getHalfmoveClock());
+        out.putShort((short) game.getFullmoveNumber());
+
+        for (int square = 0; square < 64; square += 2) {
+            out.put((byte) (pieceCode(board, square) | pieceCode(board, square + 1) << 4));
+        }
+
+        out.putShort((short) moves);
+        for (int i = moves - positions; i < moves; i++) {
+            out.putLong(game.positionBefore(i));
+        }
+        return out.array();
+    }
+
+    /**
+     * @param bytes a game packed by encode
+     * @return the game it describes
+     * @throws IllegalArgumentException if the bytes are not a game this version can read
+     */
+    public static ChessGame decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            int version = in.get();
+            if (version != VERSION && version != 1) {
+                throw new IllegalArgumentException("Unknown game encoding version " + version);
+            }
+            int flags = in.get();
+            int castlingRights = in.get() & 0xF;
+            int enPassant = (in.get() & 0xFF) - 1;
+            int halfmoveClock = in.getShort() & 0xFFFF;
+            int fullmoveNumber = in.getShort() & 0xFFFF;
+
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int pair = in.get();
+                addPiece(board, square, pair & 0xF);
+                addPiece(board, square + 1, (pair >>> 4) & 0xF);
+            }
+            board.setCastlingRights(castlingRights);
+            board.setEnPassantSquare(enPassant);
+
+            int moves = in.getShort() & 0xFFFF;
+            int positions = Math.min(moves, halfmoveClock);
+            if (version == 1) {
+                // skip the moves, then the stored count, which was always the same
+                in.position(in.position() + moves * 2);
+                positions = in.getShort() & 0xFFFF;
+                if (positions > moves) {
+                    throw new IllegalArgumentException("More position hashes than moves");
+                }
+            }
+            long[] positionHistory = new long[positions];
+            for (int i = 0; i < positions; i++) {
+                positionHistory[i] = in.getLong();
+            }
+
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn((flags & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            game.setClocks(halfmoveClock, fullmoveNumber);
+            game.setPriorPositions(moves, positionHistory);
+            game.setGameOver((flags & FLAG_GAME_OVER) != 0);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game is truncated", e);
+        }
+    }
+
+    /**
+     * Brings a decoded game up to date with moves saved after it was packed. The
+     * moves are trusted to have been legal when they were made, so none of them
+     * is checked again and the game's status is only worked out once.
+     *
+     * @param game  the game to play the moves in
+     * @param moves packed moves (see ChessMove), oldest first
+     * @throws IllegalArgumentException if a move does not start on a piece of the team to move
+     */
+    public static void replay(ChessGame game, int[] moves) {
+        game.replayMoves(moves);
+    }
+
+    private static int pieceCode(ChessBoard board, int square) {
+        ChessPiece piece = board.squares[Bitboard.row(square) - 1][Bitboard.column(square) - 1];
+        if (piece == null) {
+            return 0;
+        }
+        return Bitboard.colorIndex(piece.getTeamColor()) * 6 + piece.getPieceType().ordinal() + 1;
+    }
+
+    private static void addPiece(ChessBoard board, int square, int code) {
+        if (code == 0) {
+            return;
+        }
+        if (code > 12) {
+            throw new IllegalArgumentException("Unknown piece code " + code + " on square " + square);
+        }
+        ChessGame.TeamColor color = Bitboard.teamColor((code - 1) / 6);
+        board.addPiece(ChessPosition.of(Bitboard.row(square), Bitboard.column(square)),
+                ChessPiece.of(color, TYPES[(code - 1) % 6]));
+    }
+}
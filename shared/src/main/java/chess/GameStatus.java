@@ -0,0 +1,34 @@
+package chess;
+
+/**
+ * A snapshot of where a game stands for the team whose turn it is
+ *
+ * @param sideToMove the team whose turn it is
+ * @param inCheck    True if that team's king is attacked
+ * @param checkmate  True if that team is in check with no legal moves
+ * @param stalemate  True if that team is not in check but has no legal moves
+ * @param mobility   how many legal moves that team has
+ */
+public record GameStatus(ChessGame.TeamColor sideToMove, boolean inCheck, boolean checkmate,
+                         boolean stalemate, int mobility) {
+
+    /**
+     * Works out the status of a board with one pass of the legal move generator
+     */
+    static GameStatus of(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        MoveGenerator generator = new MoveGenerator(board, sideToMove);
+        MoveList moves = new MoveList();
+        generator.generate(moves);
+
+        boolean inCheck = generator.isInCheck();
+        boolean noMoves = moves.isEmpty();
+        return new GameStatus(sideToMove, inCheck, inCheck && noMoves, !inCheck && noMoves, moves.size());
+    }
+
+    /**
+     * @return True if the game can not continue
+     */
+    public boolean isFinished() {
+        return checkmate || stalemate;
+    }
+}
@@ -0,0 +1,437 @@
+package chess;
+
+import chess.pieces.AttackTables;
+
+import java.util.List;
+
+/**
+ * Generates only legal moves for one team on a board.
+ * <p>
+ * The pieces giving check and the pieces pinned to the king are worked out once
+ * when the generator is created. Every move is then checked against those masks
+ * instead of being played out and rescanning the board for attacks, so no move
+ * that leaves the king in check is ever emitted.
+ */
+public final class MoveGenerator {
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    private static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    private static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private final ChessBoard board;
+    private final Bitboard bitboard;
+    private final int us;
+    private final int them;
+    private final int kingSquare;
+    private final long checkers;
+    private final long pinned;
+    // squares a non-king piece may move to: anywhere when not in check,
+    // otherwise capturing the checker or blocking its ray
+    private final long checkMask;
+
+    /**
+     * Analyzes the board from the point of view of one team
+     *
+     * @param board the board to generate moves on
+     * @param color the team to generate moves for
+     */
+    public MoveGenerator(ChessBoard board, ChessGame.TeamColor color) {
+        this.board = board;
+        this.bitboard = board.getBitboard();
+        this.us = Bitboard.colorIndex(color);
+        this.them = 1 - us;
+
+        kingSquare = bitboard.kingSquare(us);
+        if (kingSquare < 0) {
+            // no king (only in test positions) means nothing can be in check or pinned
+            checkers = 0;
+            pinned = 0;
+            checkMask = -1L;
+            return;
+        }
+
+        checkers = attackersTo(bitboard, kingSquare, them, bitboard.occupied());
+        pinned = findPinned();
+
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if (Long.bitCount(checkers) == 1) {
+            int checkerSquare = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | AttackTables.between(kingSquare, checkerSquare);
+        } else {
+            // double check, only the king can move
+            checkMask = 0;
+        }
+    }
+
+    /**
+     * @return True if the team's king is attacked
+     */
+    public boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @return the squares of every enemy piece attacking the king
+     */
+    public long getCheckers() {
+        return checkers;
+    }
+
+    /**
+     * @return the squares of every piece pinned to its own king
+     */
+    public long getPinned() {
+        return pinned;
+    }
+
+    /**
+     * @return every legal move for the team
+     */
+    public List<ChessMove> legalMoves() {
+        MoveList moves = new MoveList();
+        generate(bitboard.color(us), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * @param startPosition square of the piece to move
+     * @return every legal move for the team's piece on that square
+     */
+    public List<ChessMove> legalMovesFrom(ChessPosition startPosition) {
+        MoveList moves = new MoveList(32);
+        generateFrom(startPosition, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the legal moves for the team's piece on one square to a packed move list
+     *
+     * @param startPosition square of the piece to move
+     * @param moves         the list to add to
+     */
+    public void generateFrom(ChessPosition startPosition, MoveList moves) {
+        generate(1L << Bitboard.square(startPosition), moves);
+    }
+
+    /**
+     * Adds every legal move for the team to a packed move list without creating
+     * any move objects. The list is not cleared first.
+     *
+     * @param moves the list to add to
+     */
+    public void generate(MoveList moves) {
+        generate(bitboard.color(us), moves);
+    }
+
+    /**
+     * @return True if the team has at least one legal move
+     */
+    public boolean hasLegalMove() {
+        return generate(bitboard.color(us), null) > 0;
+    }
+
+    /*
+     * Adds the legal moves for every piece in fromMask to the list. With a null
+     * list it stops at the first legal move instead. Returns how many were found.
+     */
+    private int generate(long fromMask, MoveList moves) {
+        long own = bitboard.color(us);
+        long occupied = bitboard.occupied();
+        fromMask &= own;
+        int count = 0;
+
+        // king moves are checked directly against enemy attacks, with the king
+        // lifted off the board so it cannot hide behind itself on a checking ray
+        if (kingSquare >= 0 && (fromMask & (1L << kingSquare)) != 0) {
+            long targets = AttackTables.kingAttacks(kingSquare) & ~own;
+            long withoutKing = occupied & ~(1L << kingSquare);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (attackersTo(bitboard, to, them, withoutKing) == 0) {
+                    if (moves == null) {
+                        return 1;
+                    }
+                    moves.add(ChessMove.encode(kingSquare, to, null) | captureFlag(to));
+                    count++;
+                }
+            }
+            if (checkers == 0) {
+                int castles = castles(moves);
+                if (moves == null && castles > 0) {
+                    return 1;
+                }
+                count += castles;
+            }
+        }
+        if (checkMask == 0) {
+            return count;
+        }
+
+        long pieces = kingSquare >= 0 ? fromMask & ~(1L << kingSquare) : fromMask;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            long allowed = checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= AttackTables.line(kingSquare, from);
+            }
+
+            int type = bitboard.typeAt(from);
+            long targets;
+            if (type == PAWN) {
+                targets = pawnTargets(from) & allowed;
+            } else {
+                targets = pieceAttacks(type, from, occupied) & ~own & allowed;
+            }
+            if (targets == 0) {
+                continue;
+            }
+            if (moves == null) {
+                return 1;
+            }
+
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+
+                int flags = captureFlag(to);
+                int toRow = Bitboard.row(to);
+                if (type == PAWN && (toRow == 1 || toRow == 8)) {
+                    for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                        moves.add(ChessMove.encode(from, to, promotion) | flags);
+                    }
+                    count += PROMOTIONS.length;
+                } else {
+                    if (type == PAWN && Math.abs(to - from) == 16) {
+                        flags |= ChessMove.FLAG_DOUBLE_PUSH;
+                    }
+                    moves.add(ChessMove.encode(from, to, null) | flags);
+                    count++;
+                }
+            }
+        }
+
+        if (board.getEnPassantSquare() >= 0) {
+            int captures = enPassant(fromMask, moves);
+            if (moves == null && captures > 0) {
+                return 1;
+            }
+            count += captures;
+        }
+        return count;
+    }
+
+    /*
+     * Castling moves for a king that is not in check. The king may not pass
+     * through or land on an attacked square; the squares between king and rook
+     * must be empty.
+     */
+    private int castles(MoveList moves) {
+        int home = us == Bitboard.WHITE ? 4 : 60;
+        int kingside = us == Bitboard.WHITE ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        int queenside = us == Bitboard.WHITE ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE;
+        int rights = board.usableCastlingRights() & (kingside | queenside);
+        if (rights == 0 || kingSquare != home) {
+            return 0;
+        }
+
+        long occupied = bitboard.occupied();
+        int count = 0;
+        if ((rights & kingside) != 0 && (occupied & (3L << (home + 1))) == 0
+                && attackersTo(bitboard, home + 1, them, occupied) == 0
+                && attackersTo(bitboard, home + 2, them, occupied) == 0) {
+            if (moves == null) {
+                return 1;
+            }
+            moves.add(ChessMove.encode(home, home + 2, null) | ChessMove.FLAG_CASTLE);
+            count++;
+        }
+        if ((rights & queenside) != 0 && (occupied & (7L << (home - 3))) == 0
+                && attackersTo(bitboard, home - 1, them, occupied) == 0
+                && attackersTo(bitboard, home - 2, them, occupied) == 0) {
+            if (moves == null) {
+                return 1;
+            }
+            moves.add(ChessMove.encode(home, home - 2, null) | ChessMove.FLAG_CASTLE);
+            count++;
+        }
+        return count;
+    }
+
+    /*
+     * En passant captures onto the board's en passant square by pawns in fromMask
+     */
+    private int enPassant(long fromMask, MoveList moves) {
+        int to = board.getEnPassantSquare();
+        // only the team replying to the double move can take, so the square is ahead of it
+        if (Bitboard.row(to) != (us == Bitboard.WHITE ? 6 : 3) || (bitboard.occupied() & (1L << to)) != 0) {
+            return 0;
+        }
+        int captured = us == Bitboard.WHITE ? to - 8 : to + 8;
+        if ((bitboard.pieces(them, PAWN) & (1L << captured)) == 0) {
+            return 0;
+        }
+
+        int count = 0;
+        long pawns = AttackTables.pawnAttacks(them, to) & bitboard.pieces(us, PAWN) & fromMask;
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            if (!isEnPassantLegal(from, to, captured)) {
+                continue;
+            }
+            if (moves == null) {
+                return 1;
+            }
+            moves.add(ChessMove.encode(from, to, null) | ChessMove.FLAG_CAPTURE | ChessMove.FLAG_EN_PASSANT);
+            count++;
+        }
+        return count;
+    }
+
+    /*
+     * En passant takes two pawns off one row at once, which can uncover a slider
+     * the pin masks never saw, so the king's rays are looked at again with both
+     * pawns gone and ours on the en passant square.
+     */
+    private boolean isEnPassantLegal(int from, int to, int captured) {
+        if (kingSquare < 0) {
+            return true;
+        }
+        long rookLike = bitboard.pieces(them, ROOK) | bitboard.pieces(them, QUEEN);
+        long bishopLike = bitboard.pieces(them, BISHOP) | bitboard.pieces(them, QUEEN);
+
+        // a knight or pawn giving check has to be the pawn being captured
+        if ((checkers & ~(1L << captured) & ~(rookLike | bishopLike)) != 0) {
+            return false;
+        }
+        long occupied = (bitboard.occupied() & ~(1L << from) & ~(1L << captured)) | (1L << to);
+        return (AttackTables.rookAttacks(kingSquare, occupied) & rookLike) == 0
+                && (AttackTables.bishopAttacks(kingSquare, occupied) & bishopLike) == 0;
+    }
+
+    private int captureFlag(int to) {
+        return (bitboard.color(them) & (1L << to)) != 0 ? ChessMove.FLAG_CAPTURE : 0;
+    }
+
+    private long pawnTargets(int from) {
+        long occupied = bitboard.occupied();
+        long bit = 1L << from;
+        long single;
+        long twoSquares = 0;
+        if (us == Bitboard.WHITE) {
+            single = (bit << 8) & ~occupied;
+            if (Bitboard.row(from) == 2) {
+                twoSquares = (single << 8) & ~occupied;
+            }
+        } else {
+            single = (bit >>> 8) & ~occupied;
+            if (Bitboard.row(from) == 7) {
+                twoSquares = (single >>> 8) & ~occupied;
+            }
+        }
+        return single | twoSquares | (AttackTables.pawnAttacks(us, from) & bitboard.color(them));
+    }
+
+    /*
+     * Finds our pieces that are the only thing between our king and an enemy
+     * slider on the same line.
+     */
+    private long findPinned() {
+        long result = 0;
+        long occupied = bitboard.occupied();
+        long rookLike = bitboard.pieces(them, ROOK) | bitboard.pieces(them, QUEEN);
+        long bishopLike = bitboard.pieces(them, BISHOP) | bitboard.pieces(them, QUEEN);
+
+        // enemy sliders that would see the king on an empty board
+        long snipers = (AttackTables.rookAttacks(kingSquare, 0) & rookLike)
+                | (AttackTables.bishopAttacks(kingSquare, 0) & bishopLike);
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = AttackTables.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                result |= blockers & bitboard.color(us);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines if any piece of a team attacks a square. This looks outward from
+     * the square itself (knight jumps, pawn diagonals and slider rays) rather than
+     * generating the attacking team's moves, so it costs a few table lookups.
+     *
+     * @param board   the board to look at
+     * @param square  the square index (see Bitboard)
+     * @param byColor the team that might be attacking
+     * @return True if the square is attacked
+     */
+    public static boolean isSquareAttacked(ChessBoard board, int square, ChessGame.TeamColor byColor) {
+        Bitboard bitboard = board.getBitboard();
+        int by = Bitboard.colorIndex(byColor);
+        long occupied = bitboard.occupied();
+
+        // cheapest lookups first so most answers come back early
+        if ((AttackTables.pawnAttacks(1 - by, square) & bitboard.pieces(by, PAWN)) != 0
+                || (AttackTables.knightAttacks(square) & bitboard.pieces(by, KNIGHT)) != 0
+                || (AttackTables.kingAttacks(square) & bitboard.pieces(by, KING)) != 0) {
+            return true;
+        }
+        long queens = bitboard.pieces(by, QUEEN);
+        long rookLike = bitboard.pieces(by, ROOK) | queens;
+        long bishopLike = bitboard.pieces(by, BISHOP) | queens;
+        return (rookLike != 0 && (AttackTables.rookAttacks(square, occupied) & rookLike) != 0)
+                || (bishopLike != 0 && (AttackTables.bishopAttacks(square, occupied) & bishopLike) != 0);
+    }
+
+    public static boolean isSquareAttacked(ChessBoard board, ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(board, Bitboard.square(position), byColor);
+    }
+
+    /*
+     * Every piece of the given color attacking the square, with sliders blocked
+     * by the given occupancy.
+     */
+    private static long attackersTo(Bitboard bitboard, int square, int byColor, long occupied) {
+        long rookLike = bitboard.pieces(byColor, ROOK) | bitboard.pieces(byColor, QUEEN);
+        long bishopLike = bitboard.pieces(byColor, BISHOP) | bitboard.pieces(byColor, QUEEN);
+
+        return (AttackTables.knightAttacks(square) & bitboard.pieces(byColor, KNIGHT))
+                | (AttackTables.kingAttacks(square) & bitboard.pieces(byColor, KING))
+                // a pawn of byColor attacks this square from where our pawn would capture
+                | (AttackTables.pawnAttacks(1 - byColor, square) & bitboard.pieces(byColor, PAWN))
+                | (AttackTables.rookAttacks(square, occupied) & rookLike)
+                | (AttackTables.bishopAttacks(square, occupied) & bishopLike);
+    }
+
+    private static long pieceAttacks(int type, int square, long occupied) {
+        if (type == KNIGHT) {
+            return AttackTables.knightAttacks(square);
+        }
+        if (type == BISHOP) {
+            return AttackTables.bishopAttacks(square, occupied);
+        }
+        if (type == ROOK) {
+            return AttackTables.rookAttacks(square, occupied);
+        }
+        if (type == QUEEN) {
+            return AttackTables.queenAttacks(square, occupied);
+        }
+        if (type == KING) {
+            return AttackTables.kingAttacks(square);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of moves packed into ints, used inside move generation so no
+ * ChessMove or ChessPosition objects are created until the moves leave through
+ * the public API. A list can be cleared and refilled without reallocating.
+ * <p>
+ * Moves use the int encoding described in ChessMove.
+ */
+public final class MoveList {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Exchanges two entries, for sorting moves in place
+     */
+    public void swap(int i, int j) {
+        int move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+    }
+
+    /**
+     * Looks up a move by its start, end and promotion, ignoring flags
+     *
+     * @param move a packed move, with or without flags
+     * @return the matching move from the list including its flags, or -1 if
+     * there is none
+     */
+    public int find(int move) {
+        int key = move & ChessMove.MOVE_MASK;
+        for (int i = 0; i < size; i++) {
+            if ((moves[i] & ChessMove.MOVE_MASK) == key) {
+                return moves[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts the packed moves to ChessMoves for callers outside the engine
+     *
+     * @return a new list holding one ChessMove per packed move
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(ChessMove.decode(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package chess;
+
+/**
+ * Everything ChessBoard needs to take back a move made with
+ * {@link ChessBoard#makeMove(ChessMove)}
+ */
+public final class MoveUndo {
+    final ChessMove move;
+    final ChessPiece movedPiece;
+    final ChessPiece capturedPiece;
+    // the packed move and undo value the board actually used
+    final int packedMove;
+    final int packedUndo;
+
+    MoveUndo(ChessMove move, ChessPiece movedPiece, ChessPiece capturedPiece, int packedMove, int packedUndo) {
+        this.move = move;
+        this.movedPiece = movedPiece;
+        this.capturedPiece = capturedPiece;
+        this.packedMove = packedMove;
+        this.packedUndo = packedUndo;
+    }
+
+    /**
+     * @return the move that was made
+     */
+    public ChessMove getMove() {
+        return move;
+    }
+
+    /**
+     * @return the piece that moved, before any promotion
+     */
+    public ChessPiece getMovedPiece() {
+        return movedPiece;
+    }
+
+    /**
+     * @return the piece that was captured, or null if the move was not a capture
+     */
+    public ChessPiece getCapturedPiece() {
+        return capturedPiece;
+    }
+}
@@ -0,0 +1,149 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft split across a ForkJoinPool at the root: every legal root move becomes
+ * its own task with its own copy of the board, and the subtree counts are added
+ * up at the end. Workers can optionally share a PerftTable so a subtree reached
+ * through different move orders is only counted once.
+ */
+public final class ParallelPerft {
+
+    private ParallelPerft() {
+
+    }
+
+    /**
+     * Runs perft on the common pool without a hash table
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * @param game  the position to start from, which is not modified
+     * @param depth number of plies to search
+     * @param pool  the pool to run the root moves on
+     * @param table shared subtree counts, or null to count every subtree
+     * @return the number of leaf nodes
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool, PerftTable table) {
+        if (depth <= 1) {
+            return Perft.perft(game, depth);
+        }
+        return pool.invoke(new RootTask(game.getBoard(), game.getTeamTurn(), depth, table));
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor turn;
+        private final int depth;
+        private final PerftTable table;
+
+        RootTask(ChessBoard board, ChessGame.TeamColor turn, int depth, PerftTable table) {
+            this.board = board;
+            this.turn = turn;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            MoveList rootMoves = new MoveList();
+            new MoveGenerator(board, turn).generate(rootMoves);
+
+            List<MoveTask> tasks = new ArrayList<>(rootMoves.size());
+            for (int i = 0; i < rootMoves.size(); i++) {
+                // each worker gets a private board with its root move already made
+                ChessBoard copy = board.clone();
+                copy.makeMove(rootMoves.get(i));
+                tasks.add(new MoveTask(copy, Perft.opponent(turn), depth - 1, table));
+            }
+            invokeAll(tasks);
+
+            long nodes = 0;
+            for (MoveTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static final class MoveTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor turn;
+        private final int depth;
+        private final PerftTable table;
+
+        MoveTask(ChessBoard board, ChessGame.TeamColor turn, int depth, PerftTable table) {
+            this.board = board;
+            this.turn = turn;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            MoveList[] lists = Perft.newLists(depth);
+            if (table == null) {
+                return Perft.count(board, turn, depth, lists);
+            }
+            return countHashed(board, turn, depth, lists, table);
+        }
+    }
+
+    private static long countHashed(ChessBoard board, ChessGame.TeamColor turn, int depth,
+                                    MoveList[] lists, PerftTable table) {
+        if (depth <= 2) {
+            // shallow subtrees are cheaper to count than to look up
+            return Perft.count(board, turn, depth, lists);
+        }
+
+        long key = board.getPositionKey() ^ Zobrist.sideToMove(turn) ^ (depth * 0x9E3779B97F4A7C15L);
+        long cached = table.probe(key);
+        if (cached >= 0) {
+            return cached;
+        }
+
+        MoveList moves = lists[depth];
+        moves.clear();
+        new MoveGenerator(board, turn).generate(moves);
+
+        long nodes = 0;
+        ChessGame.TeamColor next = Perft.opponent(turn);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int undo = board.makeMove(move);
+            nodes += countHashed(board, next, depth - 1, lists, table);
+            board.unmakeMove(move, undo);
+        }
+        table.store(key, nodes);
+        return nodes;
+    }
+
+    /**
+     * Runs a parallel perft of the starting position and prints nodes per second.
+     * <p>
+     * Usage: ParallelPerft [depth] [threads] [hash MB, 0 for none]
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        PerftTable table = hashMegabytes > 0 ? new PerftTable(hashMegabytes) : null;
+
+        long start = System.nanoTime();
+        long nodes = perft(new ChessGame(), depth, pool, table);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("Depth: %d%nThreads: %d%nNodes: %d%nTime: %.3f s%nNodes/sec: %.0f%n",
+                depth, threads, nodes, seconds, nodes / seconds);
+    }
+}
@@ -0,0 +1,113 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The counts for
+ * standard positions are well known, so perft checks that move generation is
+ * correct, and the time it takes is a direct nodes-per-second benchmark.
+ */
+public final class Perft {
+
+    private Perft() {
+
+    }
+
+    /**
+     * Counts every move sequence of the given length from the game's position.
+     * The game itself is not modified.
+     *
+     * @param game  the position to start from
+     * @param depth number of plies to search
+     * @return the number of leaf nodes
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return count(game.getBoard().clone(), game.getTeamTurn(), depth, newLists(depth));
+    }
+
+    /**
+     * Splits the perft count by root move, which is how a wrong count is tracked
+     * down to the move that causes it.
+     *
+     * @param game  the position to start from
+     * @param depth number of plies to search, at least 1
+     * @return the node count below each legal root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        ChessBoard board = game.getBoard().clone();
+        ChessGame.TeamColor turn = game.getTeamTurn();
+        MoveList[] lists = newLists(depth);
+        MoveList rootMoves = new MoveList();
+        new MoveGenerator(board, turn).generate(rootMoves);
+
+        Map<ChessMove, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            int undo = board.makeMove(move);
+            long nodes = depth <= 1 ? 1 : count(board, opponent(turn), depth - 1, lists);
+            board.unmakeMove(move, undo);
+            result.put(ChessMove.decode(move), nodes);
+        }
+        return result;
+    }
+
+    static long count(ChessBoard board, ChessGame.TeamColor turn, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth];
+        moves.clear();
+        new MoveGenerator(board, turn).generate(moves);
+        if (depth == 1) {
+            // bulk count: every legal move at the last ply is one leaf
+            return moves.size();
+        }
+
+        long nodes = 0;
+        ChessGame.TeamColor next = opponent(turn);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int undo = board.makeMove(move);
+            nodes += count(board, next, depth - 1, lists);
+            board.unmakeMove(move, undo);
+        }
+        return nodes;
+    }
+
+    // one reusable move list per remaining depth so the search never allocates them
+    static MoveList[] newLists(int depth) {
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i <= depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    static ChessGame.TeamColor opponent(ChessGame.TeamColor turn) {
+        return turn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * Runs divide on the starting position and prints the per-move counts along
+     * with the total and nodes per second.
+     * <p>
+     * Usage: Perft [depth]
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        ChessGame game = new ChessGame();
+
+        long start = System.nanoTime();
+        Map<ChessMove, Long> counts = divide(game, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (var entry : counts.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("%nNodes: %d%nTime: %.3f s%nNodes/sec: %.0f%n", total, seconds, total / seconds);
+    }
+}
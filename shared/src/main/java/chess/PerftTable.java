@@ -0,0 +1,48 @@
+package chess;
+
+/**
+ * A fixed-size hash table of perft subtree counts that many threads can share
+ * without locks.
+ * <p>
+ * Each entry is two longs: the key XORed with the count, and the count. Threads
+ * write the two halves without synchronizing, so a reader can see halves from
+ * different writes; XORing them back together only reproduces the key when
+ * both halves belong to the same write, so torn entries read as misses.
+ * <p>
+ * Counts are stored plus one, so an empty slot (two zeros) can never pass for a
+ * stored count of position key 0.
+ */
+public final class PerftTable {
+    // two longs an entry, so the array length stays a power of two under Integer.MAX_VALUE
+    private static final int MAX_ENTRIES = 1 << 29;
+
+    private final long[] entries;
+    private final int mask;
+
+    /**
+     * @param megabytes approximate table size; rounded down to a power of two entries
+     */
+    public PerftTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        int count = Integer.highestOneBit((int) Math.min(bytes / 16, MAX_ENTRIES));
+        entries = new long[count * 2];
+        mask = count - 1;
+    }
+
+    /**
+     * @param key position key, already mixed with the depth
+     * @return the stored count, or -1 if there is none
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) * 2;
+        long check = entries[index];
+        long stored = entries[index + 1];
+        return stored != 0 && (check ^ stored) == key ? stored - 1 : -1;
+    }
+
+    public void store(long key, long count) {
+        int index = ((int) key & mask) * 2;
+        entries[index] = key ^ (count + 1);
+        entries[index + 1] = count + 1;
+    }
+}
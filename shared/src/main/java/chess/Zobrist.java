@@ -0,0 +1,74 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's hash is the XOR of one key per
+ * piece on each square, plus a key when black is to move and keys for castling
+ * rights and en passant, so making a move only needs a few XORs to update it.
+ * <p>
+ * The keys come from a fixed seed so every JVM (server and client alike)
+ * computes the same hash for the same position.
+ */
+public final class Zobrist {
+    // indexed by (color * 6 + PieceType.ordinal()) * 64 + square
+    private static final long[] PIECES = new long[12 * 64];
+    private static final long BLACK_TO_MOVE;
+    // indexed by the castling rights bits (see ChessBoard)
+    private static final long[] CASTLING = new long[16];
+    // indexed by the column of the en passant square
+    private static final long[] EN_PASSANT = new long[8];
+
+    static {
+        // Saved games hold position hashes, so the seed and the order keys are drawn
+        // in must not change; a new key has to be drawn after all of these.
+        SplittableRandom random = new SplittableRandom(0x2F0B_5A11_C0DEL);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        // no rights hash to 0, so a position with none needs no XOR
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+
+    }
+
+    /**
+     * @param pieceIndex color * 6 + PieceType ordinal
+     * @param square     square index (see Bitboard)
+     * @return the key for that piece on that square
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECES[pieceIndex * 64 + square];
+    }
+
+    /**
+     * @return the key XORed in when it is black's turn
+     */
+    public static long sideToMove(ChessGame.TeamColor turn) {
+        return turn == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * @param rights castling rights bits, 0 for none
+     * @return the key for that set of rights (0 when there are none)
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param column column (1-8) of the en passant square
+     * @return the key for an en passant capture being available on that column
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT[column - 1];
+    }
+}
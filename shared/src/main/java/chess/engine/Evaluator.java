@@ -0,0 +1,113 @@
+package chess.engine;
+
+import chess.Bitboard;
+
+/**
+ * Static evaluation: material plus piece-square tables that reward centralized
+ * knights, advanced pawns, a sheltered king and so on.
+ * <p>
+ * Scores are in centipawns from the point of view of the team to move, the way
+ * negamax wants them.
+ */
+public final class Evaluator {
+    // indexed by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    /*
+     * Tables are written as the board looks from white's side, row 8 first, so a
+     * white piece on square s reads entry s ^ 56 and a black piece reads entry s.
+     */
+    private static final int[] KING_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[][] TABLES = {KING_TABLE, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_TABLE};
+
+    private Evaluator() {
+
+    }
+
+    /**
+     * @param bitboard   the position
+     * @param sideToMove color index (see Bitboard) of the team to move
+     * @return the score in centipawns, positive when the team to move is better
+     */
+    public static int evaluate(Bitboard bitboard, int sideToMove) {
+        int score = 0;
+        for (int type = 0; type < 6; type++) {
+            int[] table = TABLES[type];
+            int value = PIECE_VALUES[type];
+
+            long white = bitboard.pieces(Bitboard.WHITE, type);
+            score += Long.bitCount(white) * value;
+            while (white != 0) {
+                score += table[Long.numberOfTrailingZeros(white) ^ 56];
+                white &= white - 1;
+            }
+
+            long black = bitboard.pieces(Bitboard.BLACK, type);
+            score -= Long.bitCount(black) * value;
+            while (black != 0) {
+                score -= table[Long.numberOfTrailingZeros(black)];
+                black &= black - 1;
+            }
+        }
+        return sideToMove == Bitboard.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,122 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-threaded search in the Lazy SMP style: every thread searches the same
+ * root on its own board copy, and the only thing they share is the
+ * transposition table. Helpers fill the table with results the main thread then
+ * finds for free. Half the helpers start one ply deeper so the threads spread
+ * over different depths instead of repeating each other's work.
+ * <p>
+ * The calling thread does the main search and its answer is the one reported;
+ * helpers are stopped as soon as it finishes.
+ */
+public final class LazySmpSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final Search main;
+    private final Search[] helpers;
+    private final ExecutorService pool;
+
+    /**
+     * @param threads         total threads searching, including the caller
+     * @param tableMegabytes  size of the shared transposition table
+     */
+    public LazySmpSearch(int threads, int tableMegabytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        table = new TranspositionTable(tableMegabytes);
+        main = new Search(table);
+        helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table);
+        }
+        pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return number of threads searching, including the caller
+     */
+    public int threads() {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Searches the game's position on every thread
+     *
+     * @param game         the game to find a move in, which is not changed
+     * @param maxDepth     deepest iteration the main thread runs
+     * @param budgetMillis time allowed
+     * @return the main thread's result, with nodes counted across all threads
+     */
+    public SearchResult search(ChessGame game, int maxDepth, long budgetMillis) {
+        table.newSearch();
+        main.stopRequestedReset();
+        // build the lazy bitboard here so the threads only ever read the shared board
+        game.getBoard().getBitboard();
+
+        List<Future<SearchResult>> running = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            int startDepth = 1 + (i & 1);
+            helper.stopRequestedReset();
+            running.add(pool.submit(() -> helper.run(game, startDepth, Search.MAX_PLY, budgetMillis)));
+        }
+
+        SearchResult result = main.run(game, 1, maxDepth, budgetMillis);
+
+        long nodes = result.nodes();
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+        for (Future<SearchResult> future : running) {
+            try {
+                nodes += future.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.elapsedNanos());
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Measures how search speed and time to reach a depth scale with threads.
+     * <p>
+     * Usage: LazySmpSearch [depth] [max threads] [FEN]
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ChessGame game = args.length > 2 ? ChessGame.fromFen(args[2]) : new ChessGame();
+
+        System.out.printf("%-8s %-12s %-14s %-10s%n", "Threads", "Time (ms)", "Nodes/sec", "Best move");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            try (LazySmpSearch search = new LazySmpSearch(threads, 64)) {
+                SearchResult result = search.search(game, depth, 3_600_000L);
+                System.out.printf("%-8d %-12d %-14d %-10s%n", threads, result.elapsedNanos() / 1_000_000,
+                        result.nodesPerSecond(), result.bestMove());
+            }
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package chess.engine;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Zobrist;
+
+/**
+ * Finds a move for the team to move with a negamax alpha-beta search.
+ * <p>
+ * The search deepens one ply at a time until the time budget or the maximum
+ * depth runs out, starting each iteration with the previous best move. Within an
+ * iteration moves are tried captures first (most valuable victim, least valuable
+ * attacker), then promotions, then the killer moves that caused cutoffs at the
+ * same ply, then the rest. A transposition table remembers the score and best
+ * move of positions already searched, so transpositions are cut off or at least
+ * start with their best move. At the horizon a quiescence search keeps playing
+ * captures so the evaluation is never taken in the middle of an exchange.
+ * <p>
+ * A position that already came up since the last capture or pawn move, on the
+ * current line or earlier in the game, is scored as a draw, and so is any
+ * position a hundred half moves past one. That keeps a winning bot from walking
+ * into a repetition or fifty-move draw it could have avoided.
+ * <p>
+ * A Search owns its board copy and move buffers, so one instance must only be
+ * used by one thread at a time. The buffers are allocated once, leaving only a
+ * short-lived MoveGenerator per node.
+ */
+public final class Search {
+    public static final int MATE = 30_000;
+    public static final int MAX_PLY = 64;
+    private static final int INFINITY = MATE + 1;
+    // how many nodes go by between clock checks
+    private static final int CHECK_INTERVAL = 2048;
+
+    private static final int PAWN = 5;
+    // half moves without a capture or pawn move that make a draw
+    private static final int FIFTY_MOVES = 100;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] moveScores = new int[MAX_PLY + 1][256];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // position keys from the game's moves since its last capture or pawn move, then
+    // along the current line from index root on, for spotting repetitions. Older
+    // positions than FIFTY_MOVES back can't matter, as the game would already be drawn.
+    private final long[] pathKeys = new long[FIFTY_MOVES + MAX_PLY + 1];
+    // half moves since the last capture or pawn move at each ply of the current line
+    private final int[] halfmoveClocks = new int[MAX_PLY + 1];
+    private int root;
+
+    private final TranspositionTable table;
+    private ChessBoard board;
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+    // set from another thread to end the search early
+    private volatile boolean stopRequested;
+
+    /**
+     * Creates a search with its own 16 MB transposition table
+     */
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * @param table transposition table to use, which may be shared with other searches
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            moveLists[i] = new MoveList(64);
+        }
+    }
+
+    /**
+     * Searches the game's current position without changing the game
+     *
+     * @param game         the game to find a move in
+     * @param maxDepth     deepest iteration to run
+     * @param budgetMillis time allowed; the iteration running when it is used up is abandoned
+     * @return the best move from the deepest finished iteration
+     */
+    public SearchResult search(ChessGame game, int maxDepth, long budgetMillis) {
+        stopRequestedReset();
+        table.newSearch();
+        return run(game, 1, maxDepth, budgetMillis);
+    }
+
+    /**
+     * Asks a search running on another thread to give up its current iteration
+     * and return. The flag is polled along with the clock.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    void stopRequestedReset() {
+        stopRequested = false;
+    }
+
+    /*
+     * Iterative deepening from startDepth, without touching the stop flag or the
+     * table generation so a group of searches can share both
+     */
+    SearchResult run(ChessGame game, int startDepth, int maxDepth, long budgetMillis) {
+        long start = System.nanoTime();
+        board = game.getBoard().clone();
+        int us = Bitboard.colorIndex(game.getTeamTurn());
+        nodes = 0;
+        stopped = false;
+        deadline = start + budgetMillis * 1_000_000L;
+        for (int[] pair : killers) {
+            pair[0] = 0;
+            pair[1] = 0;
+        }
+
+        MoveList rootMoves = new MoveList();
+        new MoveGenerator(board, game.getTeamTurn()).generate(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = new MoveGenerator(board, game.getTeamTurn()).isInCheck() ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, System.nanoTime() - start);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        int[] rootScores = new int[rootMoves.size()];
+        int plies = game.getPlyCount();
+        root = Math.min(Math.min(game.getHalfmoveClock(), plies), FIFTY_MOVES);
+        for (int i = 0; i < root; i++) {
+            pathKeys[i] = game.positionBefore(plies - root + i);
+        }
+        pathKeys[root] = board.getPositionKey() ^ Zobrist.sideToMove(game.getTeamTurn());
+        halfmoveClocks[0] = game.getHalfmoveClock();
+        for (int depth = Math.min(startDepth, maxDepth); depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+            orderRoot(rootMoves, rootScores, bestMove);
+
+            int alpha = -INFINITY;
+            int iterationBest = bestMove;
+            for (int i = 0; i < rootMoves.size(); i++) {
+                int move = rootMoves.get(i);
+                halfmoveClocks[1] = nextHalfmoveClock(move, 0);
+                int undo = board.makeMove(move);
+                int score = -negamax(1 - us, depth - 1, 1, -INFINITY, -alpha);
+                board.unmakeMove(move, undo);
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            table.store(pathKeys[root], bestMove, toTable(bestScore, 0), depth, TranspositionTable.EXACT);
+            if (Math.abs(bestScore) >= MATE - MAX_PLY) {
+                break; // a forced mate will not change with more depth
+            }
+        }
+
+        return new SearchResult(ChessMove.decode(bestMove), bestScore, completedDepth, nodes,
+                System.nanoTime() - start);
+    }
+
+    private int negamax(int us, int depth, int ply, int alpha, int beta) {
+        if (depth <= 0) {
+            return quiesce(us, ply, alpha, beta);
+        }
+        if (timeUp()) {
+            return 0;
+        }
+        nodes++;
+
+        long key = board.getPositionKey() ^ Zobrist.sideToMove(Bitboard.teamColor(us));
+        pathKeys[root + ply] = key;
+        if (isRepetition(ply, key) || halfmoveClocks[ply] >= FIFTY_MOVES) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(board.getBitboard(), us);
+        }
+
+        int tableMove = 0;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveGenerator generator = new MoveGenerator(board, Bitboard.teamColor(us));
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        generator.generate(moves);
+        if (moves.isEmpty()) {
+            return generator.isInCheck() ? -MATE + ply : 0;
+        }
+
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, ply, tableMove);
+        int bestMove = 0;
+        int bound = TranspositionTable.UPPER;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            halfmoveClocks[ply + 1] = nextHalfmoveClock(move, ply);
+            int undo = board.makeMove(move);
+            int score = -negamax(1 - us, depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove(move, undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                if (!ChessMove.isCapture(move)) {
+                    storeKiller(ply, move);
+                }
+                table.store(key, move, toTable(beta, ply), depth, TranspositionTable.LOWER);
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                bound = TranspositionTable.EXACT;
+            }
+        }
+        table.store(key, bestMove, toTable(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    /*
+     * Mate scores count plies from the root, but a table entry can be reached at
+     * any ply, so they are stored counting from the entry's own position instead
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /*
+     * Plays out captures (and every evasion when in check) until the position is
+     * quiet enough to evaluate. Not capturing is always allowed, so the static
+     * evaluation is a lower bound.
+     */
+    private int quiesce(int us, int ply, int alpha, int beta) {
+        if (timeUp()) {
+            return 0;
+        }
+        nodes++;
+
+        MoveGenerator generator = new MoveGenerator(board, Bitboard.teamColor(us));
+        boolean inCheck = generator.isInCheck();
+        if (!inCheck) {
+            int standPat = Evaluator.evaluate(board.getBitboard(), us);
+            if (standPat >= beta || ply >= MAX_PLY) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+        } else if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(board.getBitboard(), us);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        generator.generate(moves);
+        if (inCheck && moves.isEmpty()) {
+            return -MATE + ply;
+        }
+
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, ply, 0);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            if (!inCheck && !ChessMove.isCapture(move) && ChessMove.promotion(move) == null) {
+                break; // captures and promotions sort first, so only quiet moves are left
+            }
+            int undo = board.makeMove(move);
+            int score = -quiesce(1 - us, ply + 1, -beta, -alpha);
+            board.unmakeMove(move, undo);
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    private boolean timeUp() {
+        if (stopped) {
+            return true;
+        }
+        if ((nodes & (CHECK_INTERVAL - 1)) == 0 && (stopRequested || System.nanoTime() > deadline)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /*
+     * A position repeated since the last capture or pawn move, whether on the
+     * current line or in the game before it, is scored as a draw. Only every
+     * other ply can hold the same team to move.
+     */
+    private boolean isRepetition(int ply, long key) {
+        int oldest = Math.max(0, root + ply - halfmoveClocks[ply]);
+        for (int i = root + ply - 2; i >= oldest; i -= 2) {
+            if (pathKeys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the halfmove clock after a move that hasn't been made yet
+    private int nextHalfmoveClock(int move, int ply) {
+        if (ChessMove.isCapture(move) || board.getBitboard().typeAt(ChessMove.from(move)) == PAWN) {
+            return 0;
+        }
+        return halfmoveClocks[ply] + 1;
+    }
+
+    private void scoreMoves(MoveList moves, int[] scores, int ply, int tableMove) {
+        Bitboard bitboard = board.getBitboard();
+        int[] killerMoves = killers[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if ((move & ChessMove.MOVE_MASK) == tableMove) {
+                score = 2_000_000;
+            } else if (ChessMove.isCapture(move)) {
+                // most valuable victim first, then least valuable attacker
+                int victim = ChessMove.isEnPassant(move) ? PAWN : bitboard.typeAt(ChessMove.to(move));
+                int attacker = bitboard.typeAt(ChessMove.from(move));
+                score = 1_000_000 + Evaluator.PIECE_VALUES[victim] * 10 - Evaluator.PIECE_VALUES[attacker] / 10;
+            } else if (ChessMove.promotion(move) != null) {
+                score = 900_000 + Evaluator.PIECE_VALUES[ChessMove.promotion(move).ordinal()];
+            } else if ((move & ChessMove.MOVE_MASK) == killerMoves[0]) {
+                score = 800_000;
+            } else if ((move & ChessMove.MOVE_MASK) == killerMoves[1]) {
+                score = 700_000;
+            }
+            scores[i] = score;
+        }
+    }
+
+    /*
+     * Selection sort one step at a time: a cutoff usually comes early, so most
+     * of the list never needs sorting.
+     */
+    private static int pickNext(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    private void storeKiller(int ply, int move) {
+        int packed = move & ChessMove.MOVE_MASK;
+        int[] killerMoves = killers[ply];
+        if (killerMoves[0] != packed) {
+            killerMoves[1] = killerMoves[0];
+            killerMoves[0] = packed;
+        }
+    }
+
+    /*
+     * Root moves go in capture order with the previous iteration's best move first
+     */
+    private void orderRoot(MoveList moves, int[] scores, int bestMove) {
+        scoreMoves(moves, scores, 0, 0);
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == bestMove) {
+                scores[i] = Integer.MAX_VALUE;
+            }
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            pickNext(moves, scores, i);
+        }
+    }
+
+    /**
+     * Searches a position and prints what was found and how fast.
+     * <p>
+     * Usage: Search [milliseconds] [FEN] [hash MB]
+     */
+    public static void main(String[] args) {
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        ChessGame game = args.length > 1 ? ChessGame.fromFen(args[1]) : new ChessGame();
+        int hashMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        SearchResult result = new Search(new TranspositionTable(hashMegabytes)).search(game, MAX_PLY, budget);
+        System.out.printf("Best move: %s%nScore: %d%nDepth: %d%nNodes: %d%nNodes/sec: %d%n",
+                result.bestMove(), result.score(), result.depth(), result.nodes(), result.nodesPerSecond());
+    }
+}
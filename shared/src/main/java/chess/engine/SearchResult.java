@@ -0,0 +1,30 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * What a search found and what it cost
+ *
+ * @param bestMove     the move to play, or null if the team to move has none
+ * @param score        centipawns from the point of view of the team to move;
+ *                     mate scores are near Search.MATE
+ * @param depth        the deepest iteration that finished
+ * @param nodes        positions visited, counting quiescence
+ * @param elapsedNanos wall time spent searching
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos) {
+
+    /**
+     * @return positions visited per second of search
+     */
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * @return True if the score means a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+}
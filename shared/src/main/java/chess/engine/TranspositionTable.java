@@ -0,0 +1,141 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by 64-bit position hash, shared by
+ * every thread searching with it.
+ * <p>
+ * Each slot is two longs in one flat array: the key XORed with the data, and
+ * the data. Writers do not lock, so a reader racing a writer can see the two
+ * halves of different entries; XORing them back together then fails to give the
+ * probed key and the slot reads as empty. Nothing is allocated after construction.
+ * <p>
+ * Data is packed as:
+ * <pre>
+ *   bits 0-15   best move (ChessMove.MOVE_MASK bits)
+ *   bits 16-31  score as a signed 16-bit value
+ *   bits 32-39  depth searched
+ *   bits 40-41  bound type
+ *   bits 42-49  search generation, so stale entries get replaced first
+ * </pre>
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 1;
+    // the score is at least this much (the search failed high)
+    public static final int LOWER = 2;
+    // the score is at most this much (no move raised alpha)
+    public static final int UPPER = 3;
+
+    // two longs a slot, so the array length stays a power of two under Integer.MAX_VALUE
+    private static final int MAX_SLOTS = 1 << 29;
+
+    private final long[] slots;
+    private final int mask;
+    private int generation;
+
+    /**
+     * @param megabytes table size, rounded down to a power of two slots
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        int count = Integer.highestOneBit((int) Math.min(bytes / 16, MAX_SLOTS));
+        slots = new long[count * 2];
+        mask = count - 1;
+    }
+
+    /**
+     * @param key position hash
+     * @return the packed entry for the position, or 0 if there is none
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) << 1;
+        long check = slots[index];
+        long data = slots[index + 1];
+        return (check ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Stores a result unless the slot holds a deeper result for another position
+     * from the current search
+     *
+     * @param key   position hash
+     * @param move  best move found, or 0
+     * @param score score in the table's form (mate scores relative to the node)
+     * @param depth depth searched
+     * @param bound EXACT, LOWER or UPPER
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & mask) << 1;
+        long oldData = slots[index + 1];
+        boolean sameKey = (slots[index] ^ oldData) == key;
+        if (!sameKey && oldData != 0 && generation(oldData) == (generation & 0xFF) && depth(oldData) > depth) {
+            return;
+        }
+        if (sameKey && move == 0) {
+            move = move(oldData); // keep the old best move rather than forget it
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40)
+                | ((long) (generation & 0xFF) << 42);
+        slots[index] = key ^ data;
+        slots[index + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from older ones are replaced first
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        generation = 0;
+    }
+
+    /**
+     * @return how many slots the table has
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return roughly how many slots per thousand hold entries from the current search
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = slots[(i << 1) + 1];
+            if (data != 0 && generation(data) == (generation & 0xFF)) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 32) & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> 40) & 0x3);
+    }
+
+    private static int generation(long entry) {
+        return (int) ((entry >>> 42) & 0xFF);
+    }
+}
@@ -7,7 +7,7 @@ public class BishopMoves {
 
     public static Collection<ChessMove> getMoves(ChessBoard board, ChessPosition position) {
         // Bishop moves diagonally
-        int[][] directions = {{1,1}, {1,-1}, {-1,1}, {-1,-1}};
-        return MoveHelper.getSlidingMoves(board, position, directions);
+        int square = Bitboard.square(position);
+        return MoveHelper.getMoves(board, position, AttackTables.bishopAttacks(square, board.getBitboard().occupied()));
     }
 }
\ No newline at end of file
@@ -7,7 +7,7 @@ public class KingMove {
 
     public static Collection<ChessMove> getMoves(ChessBoard board, ChessPosition position) {
         // King moves one square in any direction
-        int[][] directions = {{1,1}, {1,-1}, {-1,1}, {-1,-1}, {1,0}, {-1,0}, {0,1}, {0,-1}};
-        return MoveHelper.getSingleStepMoves(board, position, directions);
+        int square = Bitboard.square(position);
+        return MoveHelper.getMoves(board, position, AttackTables.kingAttacks(square));
     }
 }
\ No newline at end of file
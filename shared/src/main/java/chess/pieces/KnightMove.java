@@ -7,7 +7,7 @@ public class KnightMove {
 
     public static Collection<ChessMove> getMoves(ChessBoard board, ChessPosition position) {
         // Knight moves in L-shapes
-        int[][] directions = {{1,2}, {1,-2}, {-1,2}, {-1,-2}, {2,1}, {2,-1}, {-2,1}, {-2,-1}};
-        return MoveHelper.getSingleStepMoves(board, position, directions);
+        int square = Bitboard.square(position);
+        return MoveHelper.getMoves(board, position, AttackTables.knightAttacks(square));
     }
 }
\ No newline at end of file
@@ -36,22 +36,22 @@ public class PawnMove {
             return;
         }
 
-        ChessPiece pieceAhead = board.getPiece(new ChessPosition(newRow, newCol));
+        ChessPiece pieceAhead = board.getPiece(ChessPosition.of(newRow, newCol));
         // Can't move forward if blocked
         if (pieceAhead != null) {
             return;
         }
 
         // Add 1 square move (with promotion if at end)
-        addMovesWithPromotion(position, new ChessPosition(newRow, newCol), validMoves, newRow);
+        addMovesWithPromotion(position, ChessPosition.of(newRow, newCol), validMoves, newRow);
 
         // Check if can move two squares from starting position
         if (position.getRow() == startingRow) {
             int twoSquareRow = position.getRow() + (2 * forwardDirection);
-            ChessPiece pieceTwoAhead = board.getPiece(new ChessPosition(twoSquareRow, newCol));
+            ChessPiece pieceTwoAhead = board.getPiece(ChessPosition.of(twoSquareRow, newCol));
 
             if (pieceTwoAhead == null) {
-                addMovesWithPromotion(position, new ChessPosition(twoSquareRow, newCol),
+                addMovesWithPromotion(position, ChessPosition.of(twoSquareRow, newCol),
                         validMoves, twoSquareRow);
             }
         }
@@ -71,11 +71,11 @@ public class PawnMove {
                 continue;
             }
 
-            ChessPiece captureTarget = board.getPiece(new ChessPosition(captureRow, captureCol));
+            ChessPiece captureTarget = board.getPiece(ChessPosition.of(captureRow, captureCol));
 
             // Can capture if there's an enemy piece
             if (isEnemyPiece(captureTarget, piece)) {
-                addMovesWithPromotion(position, new ChessPosition(captureRow, captureCol),
+                addMovesWithPromotion(position, ChessPosition.of(captureRow, captureCol),
                         validMoves, captureRow);
             }
         }
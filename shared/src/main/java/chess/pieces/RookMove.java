@@ -7,8 +7,7 @@ public class RookMove {
 
     public static Collection<ChessMove> getMoves(ChessBoard board, ChessPosition position) {
         // Rook moves horizontally and vertically
-        int[][] directions = {{1,0}, {-1,0}, {0,1}, {0,-1}};
-        return MoveHelper.getSlidingMoves(board, position, directions);
+        int square = Bitboard.square(position);
+        return MoveHelper.getMoves(board, position, AttackTables.rookAttacks(square, board.getBitboard().occupied()));
     }
-}
-
+}
\ No newline at end of file
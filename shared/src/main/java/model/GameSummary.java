@@ -0,0 +1,5 @@
+package model;
+
+// The lobby's view of a game: who is playing and what it's called, without the board
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {
+}
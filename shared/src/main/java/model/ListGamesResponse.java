@@ -2,5 +2,5 @@ package model;
 
 import java.util.Collection;
 
-public record ListGamesResponse(Collection<GameData> games) {
-}
\ No newline at end of file
+public record ListGamesResponse(Collection<GameSummary> games) {
+}
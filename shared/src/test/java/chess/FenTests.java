@@ -0,0 +1,72 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reading and writing positions as FEN records.
+ */
+public class FenTests {
+
+    @Test
+    @DisplayName("Start Position Round Trip")
+    public void startPosition() {
+        var game = ChessGame.fromFen(Fen.START_POSITION);
+
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(Fen.START_POSITION, game.toFen());
+        Assertions.assertEquals(Fen.START_POSITION, new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Moves Update Every Field")
+    public void movesUpdateFields() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Parse Without Clocks")
+    public void parseWithoutClocks() {
+        var game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -");
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(new ChessPosition(5, 1)));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                game.getBoard().getPiece(new ChessPosition(5, 8)));
+        Assertions.assertEquals("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("En Passant And Castling Fields")
+    public void enPassantAndCastling() {
+        var fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w Kq f6 0 3";
+        var game = ChessGame.fromFen(fen);
+
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertTrue(game.validMoves(new ChessPosition(5, 5))
+                .contains(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 6), null)));
+    }
+
+    @Test
+    @DisplayName("Reject Bad Records")
+    public void rejectBadRecords() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e5 0 1"));
+    }
+}
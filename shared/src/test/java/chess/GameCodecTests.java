@@ -0,0 +1,148 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * Packing games into bytes for the database and reading them back.
+ */
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("New Game Round Trip")
+    public void newGame() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+
+        Assertions.assertEquals(42, bytes.length);
+        var game = GameCodec.decode(bytes);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(Fen.START_POSITION, game.toFen());
+    }
+
+    @Test
+    @DisplayName("Rights, Clocks And Flags Survive")
+    public void stateSurvives() throws InvalidMoveException {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 3 20");
+        game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(4, 1), null));
+        game.setGameOver(true);
+
+        var decoded = GameCodec.decode(GameCodec.encode(game));
+
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        Assertions.assertEquals(game.getPositionHash(), decoded.getPositionHash());
+        Assertions.assertTrue(decoded.isGameOver());
+        Assertions.assertEquals(1, decoded.getPlyCount());
+        // the moves live in the journal, not the snapshot
+        Assertions.assertTrue(decoded.getMoveHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Size Stays At The Header After A Pawn Move")
+    public void sizeStaysFixed() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (int i = 0; i < 6; i++) {
+            game.makeMove(new ChessMove(new ChessPosition(2, i + 1), new ChessPosition(3, i + 1), null));
+            game.makeMove(new ChessMove(new ChessPosition(7, i + 1), new ChessPosition(6, i + 1), null));
+        }
+        Assertions.assertEquals(42, GameCodec.encode(game).length);
+
+        // only moves since the last pawn move add a hash each
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 8), null));
+        Assertions.assertEquals(50, GameCodec.encode(game).length);
+    }
+
+    @Test
+    @DisplayName("Version 1 Games Still Read")
+    public void versionOne() {
+        byte[] current = GameCodec.encode(new ChessGame());
+        // version 1 had a move list and an explicit hash count after the header
+        byte[] old = Arrays.copyOf(current, 44);
+        old[0] = 1;
+
+        var game = GameCodec.decode(old);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(0, game.getPlyCount());
+    }
+
+    @Test
+    @DisplayName("Repetition Still Counts After Reload")
+    public void repetitionSurvives() throws InvalidMoveException {
+        var game = new ChessGame();
+        var knightOut = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+        var knightBack = new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null);
+        var blackOut = new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null);
+        var blackBack = new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null);
+
+        // reload between every move, the way the server does
+        for (int i = 0; i < 2; i++) {
+            for (var move : new ChessMove[]{knightOut, blackOut, knightBack, blackBack}) {
+                game.makeMove(move);
+                game = GameCodec.decode(GameCodec.encode(game));
+            }
+        }
+
+        Assertions.assertTrue(game.isThreefoldRepetition());
+
+        // and when the repetitions are split between before and after a reload
+        var split = new ChessGame();
+        for (var move : new ChessMove[]{knightOut, blackOut, knightBack, blackBack, knightOut}) {
+            split.makeMove(move);
+        }
+        split = GameCodec.decode(GameCodec.encode(split));
+        for (var move : new ChessMove[]{blackOut, knightBack}) {
+            split.makeMove(move);
+            Assertions.assertFalse(split.isThreefoldRepetition());
+        }
+        split.makeMove(blackBack);
+        Assertions.assertTrue(split.isThreefoldRepetition());
+        Assertions.assertEquals(8, split.getPlyCount());
+    }
+
+    @Test
+    @DisplayName("Replayed Moves Match Moves Made")
+    public void replayMatchesMakeMove() throws InvalidMoveException {
+        int[][] squares = {
+                {2, 5, 4, 5}, {7, 1, 6, 1}, {4, 5, 5, 5}, {7, 4, 5, 4},
+                // en passant, then castling king side
+                {5, 5, 6, 4}, {6, 1, 5, 1}, {1, 7, 3, 6}, {5, 1, 4, 1},
+                {1, 6, 2, 5}, {4, 1, 3, 1}, {1, 5, 1, 7}};
+        var played = new ChessGame();
+        int[] moves = new int[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            var move = new ChessMove(new ChessPosition(squares[i][0], squares[i][1]),
+                    new ChessPosition(squares[i][2], squares[i][3]), null);
+            played.makeMove(move);
+            moves[i] = ChessMove.encode(move);
+        }
+
+        var replayed = new ChessGame();
+        GameCodec.replay(replayed, moves);
+
+        Assertions.assertEquals(played.toFen(), replayed.toFen());
+        Assertions.assertEquals(played.getPositionHash(), replayed.getPositionHash());
+        Assertions.assertEquals(played.getMoveHistory(), replayed.getMoveHistory());
+        Assertions.assertEquals(played.getStatus(), replayed.getStatus());
+    }
+
+    @Test
+    @DisplayName("Replaying A Move From An Empty Square Fails")
+    public void replayRejectsEmptySquare() {
+        int move = ChessMove.encode(new ChessMove(new ChessPosition(4, 4), new ChessPosition(5, 4), null));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.replay(new ChessGame(), new int[]{move}));
+    }
+
+    @Test
+    @DisplayName("Unknown Version Rejected")
+    public void unknownVersion() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        bytes[0] = 9;
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[]{1, 0, 15}));
+    }
+}
@@ -0,0 +1,73 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Move history, repetition detection and the halfmove clock kept by ChessGame.
+ */
+public class GameHistoryTests {
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertFalse(game.isThreefoldRepetition());
+            shuffleKnights(game);
+        }
+        // the starting position has now been reached three times
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertTrue(game.isDraw());
+        Assertions.assertEquals(8, game.getMoveHistory().size());
+        Assertions.assertEquals(8, game.getPlyCount());
+    }
+
+    @Test
+    @DisplayName("Pawn Move Breaks Repetition")
+    public void pawnMoveBreaksRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        Assertions.assertEquals(4, game.getHalfmoveClock());
+
+        move(game, 2, 5, 4, 5);
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        move(game, 7, 5, 5, 5);
+        shuffleKnights(game);
+        // the start position came up twice before the pawns moved, but can never come back
+        Assertions.assertFalse(game.isThreefoldRepetition());
+        Assertions.assertEquals(4, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("History Is Left Out Of JSON")
+    public void serializedHistory() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        shuffleKnights(game);
+
+        var gson = new Gson();
+        String json = gson.toJson(game);
+        Assertions.assertEquals(gson.toJson(new ChessGame()).length(), json.length(),
+                "The JSON for a game should not grow with the moves played");
+
+        var copy = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertTrue(copy.getMoveHistory().isEmpty());
+        Assertions.assertEquals(0, copy.getHalfmoveClock());
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        move(game, 1, 7, 3, 6);
+        move(game, 8, 7, 6, 6);
+        move(game, 3, 6, 1, 7);
+        move(game, 6, 6, 8, 7);
+    }
+
+    private static void move(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null));
+    }
+}
@@ -0,0 +1,55 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The cached GameStatus has to agree with the position it describes, including
+ * after the board is edited behind the game's back.
+ */
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Starting Position Status")
+    public void startingPosition() {
+        var status = new ChessGame().getStatus();
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, status.sideToMove());
+        Assertions.assertFalse(status.inCheck());
+        Assertions.assertFalse(status.isFinished());
+        Assertions.assertEquals(20, status.mobility());
+    }
+
+    @Test
+    @DisplayName("Status Computed By makeMove")
+    public void foolsMate() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+
+        var status = game.getStatus();
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, status.sideToMove());
+        Assertions.assertTrue(status.inCheck());
+        Assertions.assertTrue(status.checkmate());
+        Assertions.assertEquals(0, status.mobility());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Status Follows Board Edits")
+    public void boardEdited() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+
+        // drop a white knight onto a square checking the black king
+        game.getBoard().addPiece(new ChessPosition(6, 4),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        Assertions.assertTrue(game.getStatus().inCheck());
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Perft node counts for well known positions, taken from the Chess Programming
+ * Wiki perft results page. Any change to move generation that breaks one of
+ * these counts is generating a wrong move somewhere.
+ */
+public class PerftTests {
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        var game = new ChessGame();
+
+        Assertions.assertEquals(20, Perft.perft(game, 1));
+        Assertions.assertEquals(400, Perft.perft(game, 2));
+        Assertions.assertEquals(8902, Perft.perft(game, 3));
+        Assertions.assertEquals(197281, Perft.perft(game, 4));
+        // the first depth where en passant captures show up
+        Assertions.assertEquals(4865609, Perft.perft(game, 5));
+    }
+
+    @Test
+    @DisplayName("Kiwipete")
+    public void kiwipete() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+
+        Assertions.assertEquals(48, Perft.perft(game, 1));
+        Assertions.assertEquals(2039, Perft.perft(game, 2));
+        Assertions.assertEquals(97862, Perft.perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("Position 4")
+    public void position4() {
+        var game = ChessGame.fromFen("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -");
+
+        Assertions.assertEquals(6, Perft.perft(game, 1));
+        Assertions.assertEquals(264, Perft.perft(game, 2));
+        Assertions.assertEquals(9467, Perft.perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("Position 5")
+    public void position5() {
+        var game = ChessGame.fromFen("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -");
+
+        Assertions.assertEquals(44, Perft.perft(game, 1));
+        Assertions.assertEquals(1486, Perft.perft(game, 2));
+        Assertions.assertEquals(62379, Perft.perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("Rook and Pawn Endgame")
+    public void rookPawnEndgame() {
+        var game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -");
+
+        Assertions.assertEquals(14, Perft.perft(game, 1));
+        Assertions.assertEquals(191, Perft.perft(game, 2));
+        Assertions.assertEquals(2812, Perft.perft(game, 3));
+        Assertions.assertEquals(43238, Perft.perft(game, 4));
+    }
+
+    @Test
+    @DisplayName("Divide Adds Up To Perft")
+    public void divideMatchesPerft() {
+        var game = new ChessGame();
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+
+        Assertions.assertEquals(20, counts.size(), "divide should list every root move");
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(8902, total);
+        Assertions.assertEquals(new ChessGame(), game, "perft should not change the game");
+    }
+
+    @Test
+    @DisplayName("Parallel Perft Matches Serial")
+    public void parallelPerft() {
+        var game = new ChessGame();
+        var pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(197281, ParallelPerft.perft(game, 4, pool, null));
+            // a tiny table forces plenty of overwrites between threads
+            Assertions.assertEquals(197281, ParallelPerft.perft(game, 4, pool, new PerftTable(1)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Empty Table Slot Is Not A Hit For Key Zero")
+    public void tableKeyZero() {
+        var table = new PerftTable(1);
+        Assertions.assertEquals(-1, table.probe(0));
+
+        // a position with no moves left counts zero, which must still read back as a hit
+        table.store(0, 0);
+        Assertions.assertEquals(0, table.probe(0));
+        table.store(5, 197281);
+        Assertions.assertEquals(197281, table.probe(5));
+    }
+}
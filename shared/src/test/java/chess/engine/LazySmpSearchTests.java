@@ -0,0 +1,52 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The multi-threaded search has to agree with the single-threaded one on
+ * positions with one clearly best move.
+ */
+public class LazySmpSearchTests {
+
+    @Test
+    @DisplayName("Threads Agree On Back Rank Mate")
+    public void backRankMate() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+        try (var search = new LazySmpSearch(3, 4)) {
+            var result = search.search(game, 4, 10_000);
+
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 4), new ChessPosition(8, 4), null),
+                    result.bestMove());
+            Assertions.assertEquals(Search.MATE - 1, result.score());
+        }
+    }
+
+    @Test
+    @DisplayName("Repeated Searches Reuse Helpers")
+    public void repeatedSearches() {
+        var game = ChessGame.fromFen("4k3/8/8/3q4/8/2N5/8/4K3 w - - 0 1");
+        try (var search = new LazySmpSearch(2, 4)) {
+            for (int i = 0; i < 3; i++) {
+                var result = search.search(game, 4, 10_000);
+                Assertions.assertEquals(new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 4), null),
+                        result.bestMove());
+                Assertions.assertEquals(4, result.depth());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Single Thread Needs No Helpers")
+    public void singleThread() {
+        try (var search = new LazySmpSearch(1, 1)) {
+            Assertions.assertEquals(1, search.threads());
+            Assertions.assertNotNull(search.search(new ChessGame(), 3, 10_000).bestMove());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LazySmpSearch(0, 1));
+    }
+}
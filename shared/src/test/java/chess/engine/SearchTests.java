@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tactics the search has to find, and the limits it has to respect.
+ */
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Back Rank Mate")
+    public void backRankMate() {
+        var game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1");
+        var result = new Search().search(game, 4, 10_000);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 4), new ChessPosition(8, 4), null),
+                result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Takes Hanging Queen")
+    public void hangingQueen() {
+        var game = ChessGame.fromFen("4k3/8/8/3q4/8/2N5/8/4K3 w - - 0 1");
+        var result = new Search().search(game, 3, 10_000);
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 4), null),
+                result.bestMove());
+        Assertions.assertEquals(3, result.depth());
+    }
+
+    @Test
+    @DisplayName("Winning Side Avoids A Third Repetition")
+    public void avoidsThreefold() throws InvalidMoveException {
+        var queenUp = new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 2), null);
+        var queenBack = new ChessMove(new ChessPosition(3, 2), new ChessPosition(1, 2), null);
+        var kingOut = new ChessMove(new ChessPosition(8, 1), new ChessPosition(7, 1), null);
+        var kingBack = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), null);
+        var game = ChessGame.fromFen("k7/8/8/8/8/8/8/KQ6 w - - 0 1");
+        // with no history the queen's best move is up to b3
+        Assertions.assertEquals(queenUp, new Search().search(game, 5, 10_000).bestMove());
+
+        // after going there and back twice, a third time would be a draw
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(queenUp);
+            game.makeMove(kingOut);
+            game.makeMove(queenBack);
+            game.makeMove(kingBack);
+        }
+        var result = new Search().search(game, 5, 10_000);
+
+        Assertions.assertNotEquals(queenUp, result.bestMove());
+        Assertions.assertTrue(result.score() > 500, "the bot should still be winning");
+    }
+
+    @Test
+    @DisplayName("Winning Side Avoids The Fifty Move Draw")
+    public void avoidsFiftyMoveDraw() {
+        // one quiet move from a draw, so only the pawn move keeps the win
+        var game = ChessGame.fromFen("k7/8/8/8/8/8/P7/KQ6 w - - 99 80");
+        var result = new Search().search(game, 5, 10_000);
+
+        Assertions.assertEquals(ChessPosition.of(2, 1), result.bestMove().getStartPosition());
+        Assertions.assertTrue(result.score() > 500, "the bot should still be winning");
+    }
+
+    @Test
+    @DisplayName("Search Does Not Change The Game")
+    public void gameUnchanged() {
+        var game = new ChessGame();
+        var result = new Search().search(game, 4, 10_000);
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() > 0);
+        Assertions.assertEquals(new ChessGame(), game);
+    }
+
+    @Test
+    @DisplayName("Respects Time Budget")
+    public void timeBudget() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var result = new Search().search(game, Search.MAX_PLY, 200);
+
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.elapsedNanos() < 2_000_000_000L, "search ran far past its budget");
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated")
+    public void checkmated() {
+        // fool's mate, white to move and mated
+        var game = ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        var result = new Search().search(game, 4, 10_000);
+
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Search.MATE, result.score());
+    }
+}
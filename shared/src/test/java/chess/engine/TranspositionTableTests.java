@@ -0,0 +1,79 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Packing, replacement and concurrent use of the transposition table.
+ */
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Store And Probe")
+    public void storeAndProbe() {
+        var table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        Assertions.assertEquals(0, table.probe(key));
+
+        table.store(key, 0x0ABC, -29_950, 12, TranspositionTable.LOWER);
+        long entry = table.probe(key);
+        Assertions.assertEquals(0x0ABC, TranspositionTable.move(entry));
+        Assertions.assertEquals(-29_950, TranspositionTable.score(entry));
+        Assertions.assertEquals(12, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+
+        // same slot, different position
+        Assertions.assertEquals(0, table.probe(key ^ (1L << 40)));
+    }
+
+    @Test
+    @DisplayName("Deeper Entries Survive The Same Search")
+    public void replacement() {
+        var table = new TranspositionTable(1);
+        long deep = 42;
+        long shallow = 42 + ((long) table.capacity() << 8); // lands in the same slot
+
+        table.store(deep, 1, 10, 8, TranspositionTable.EXACT);
+        table.store(shallow, 2, 20, 3, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(0, table.probe(deep));
+        Assertions.assertEquals(0, table.probe(shallow));
+
+        // once a new search starts, the old entry gives way
+        table.newSearch();
+        table.store(shallow, 2, 20, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(0, table.probe(deep));
+        Assertions.assertEquals(2, TranspositionTable.move(table.probe(shallow)));
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Return Torn Entries")
+    public void concurrentWriters() throws InterruptedException {
+        var table = new TranspositionTable(1);
+        var torn = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new SplittableRandom(seed);
+                for (int i = 0; i < 500_000; i++) {
+                    // only 256 distinct keys, so threads keep overwriting each other's slots
+                    long key = random.nextLong(256) * 0x9E37_79B9_7F4A_7C15L;
+                    long entry = table.probe(key);
+                    if (entry != 0 && TranspositionTable.move(entry) != (int) (key & 0xFFFF)) {
+                        torn.incrementAndGet();
+                    }
+                    table.store(key, (int) (key & 0xFFFF), 0, random.nextInt(20), TranspositionTable.EXACT);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, torn.get());
+    }
+}